@@ -0,0 +1,11 @@
+package com.valedosol.kaju.common.concurrent;
+
+/**
+ * Thrown when a call is refused because its circuit breaker is open
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    public CircuitOpenException(String circuitName) {
+        super("Circuit " + circuitName + " is open");
+    }
+}
@@ -0,0 +1,22 @@
+package com.valedosol.kaju.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a handler parameter to the authenticated user's account.
+ * <p>
+ * Declare the parameter as {@code Account} or {@code Optional<Account>}. A required
+ * {@code Account} that cannot be resolved fails the request with 404; otherwise the
+ * parameter is null or empty.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentAccount {
+
+    boolean required() default true;
+}
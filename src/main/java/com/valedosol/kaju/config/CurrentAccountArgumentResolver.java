@@ -0,0 +1,48 @@
+package com.valedosol.kaju.config;
+
+import com.valedosol.kaju.common.exception.ResourceNotFoundException;
+import com.valedosol.kaju.feature.auth.model.Account;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.Optional;
+
+/**
+ * Resolves {@link CurrentAccount} parameters through {@link UserContext}, so the
+ * account is looked up at most once per request.
+ */
+@Component
+public class CurrentAccountArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final UserContext userContext;
+
+    public CurrentAccountArgumentResolver(UserContext userContext) {
+        this.userContext = userContext;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentAccount.class)
+                && (parameter.getParameterType() == Account.class || parameter.getParameterType() == Optional.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Optional<Account> account = userContext.getCurrentAccount();
+        if (parameter.getParameterType() == Optional.class) {
+            return account;
+        }
+
+        CurrentAccount annotation = parameter.getParameterAnnotation(CurrentAccount.class);
+        if (account.isEmpty() && annotation != null && annotation.required()) {
+            throw new ResourceNotFoundException("Usuário não encontrado");
+        }
+        return account.orElse(null);
+    }
+}
@@ -1,11 +1,27 @@
 package com.valedosol.kaju.config;
 
+import com.valedosol.kaju.feature.auth.model.Account;
+import com.valedosol.kaju.feature.auth.repository.AccountRepository;
+import com.valedosol.kaju.security.AccountPrincipal;
+
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
 
 @Component
 public class UserContext {
+
+    private static final String CURRENT_ACCOUNT_ATTRIBUTE = UserContext.class.getName() + ".currentAccount";
+
+    private final AccountRepository accountRepository;
+
+    public UserContext(AccountRepository accountRepository) {
+        this.accountRepository = accountRepository;
+    }
     
     public String getCurrentUserEmail() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -14,6 +30,28 @@ public class UserContext {
         }
         return authentication.getName();
     }
+
+    /**
+     * Account of the authenticated user. Within a web request it is loaded once and
+     * reused by every later call in the same request.
+     *
+     * @return The account, or empty when nobody is authenticated or the account no longer exists
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<Account> getCurrentAccount() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return loadCurrentAccount();
+        }
+
+        Object cached = request.getAttribute(CURRENT_ACCOUNT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached != null) {
+            return (Optional<Account>) cached;
+        }
+        Optional<Account> account = loadCurrentAccount();
+        request.setAttribute(CURRENT_ACCOUNT_ATTRIBUTE, account, RequestAttributes.SCOPE_REQUEST);
+        return account;
+    }
     
     public boolean isAuthenticated() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -28,4 +66,16 @@ public class UserContext {
         return authentication.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equals(role));
     }
-}
\ No newline at end of file
+
+    private Optional<Account> loadCurrentAccount() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return Optional.empty();
+        }
+        // The principal built from the token already knows the id, which is the cheaper lookup
+        if (authentication.getPrincipal() instanceof AccountPrincipal principal && principal.getAccountId() != null) {
+            return accountRepository.findById(principal.getAccountId());
+        }
+        return accountRepository.findByEmail(authentication.getName());
+    }
+}
@@ -7,47 +7,97 @@ import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import com.valedosol.kaju.feature.promotion.dto.PromotionMedia;
 
-import java.util.Arrays;
-import java.util.concurrent.TimeUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(CacheProperties properties, List<CacheReloader> reloaders,
+                                     CacheInvalidationTransport invalidationTransport) {
         SimpleCacheManager cacheManager = new SimpleCacheManager();
-        
-        // Create different cache instances with different configurations
-        CaffeineCache plansCache = new CaffeineCache("plans", 
-            Caffeine.newBuilder()
-                .expireAfterWrite(60, TimeUnit.MINUTES)
-                .initialCapacity(10)
-                .maximumSize(50)
-                .recordStats()
-                .build());
-        
-        CaffeineCache accountsCache = new CaffeineCache("accounts", 
-            Caffeine.newBuilder()
-                .expireAfterWrite(5, TimeUnit.MINUTES)
-                .initialCapacity(100)
-                .maximumSize(500)
-                .recordStats()
-                .build());
-        
-        CaffeineCache targetsCache = new CaffeineCache("targets", 
-            Caffeine.newBuilder()
-                .expireAfterWrite(15, TimeUnit.MINUTES)
-                .initialCapacity(20)
-                .maximumSize(100)
-                .recordStats()
-                .build());
+        Map<String, CacheReloader> reloaderByCache = reloaders.stream()
+                .collect(Collectors.toMap(CacheReloader::getCacheName, Function.identity()));
+
+        // One cache per configured spec, tunable through cache.specs.<name> without rebuilding.
+        // Each one broadcasts its evictions so the other nodes drop their stale copies.
+        Map<String, InvalidatingCache> caches = new LinkedHashMap<>();
+        properties.getSpecs().forEach((name, spec) -> caches.put(name, new InvalidatingCache(
+                buildCache(name, CaffeineSpec.parse(spec), reloaderByCache.get(name)), invalidationTransport)));
+
+        invalidationTransport.subscribe(invalidation -> {
+            InvalidatingCache cache = caches.get(invalidation.cacheName());
+            if (cache != null) {
+                cache.apply(invalidation);
+            }
+        });
         
         // Register all cache instances
-        cacheManager.setCaches(Arrays.asList(plansCache, accountsCache, targetsCache));
+        cacheManager.setCaches(caches.values());
         
         return cacheManager;
     }
-}
\ No newline at end of file
+
+    private CaffeineCache buildCache(String name, CaffeineSpec spec, CacheReloader reloader) {
+        Caffeine<Object, Object> builder = Caffeine.from(spec);
+
+        // Promotion images inlined as base64, bounded by their total size
+        if ("promotionMedia".equals(name)) {
+            builder.weigher((key, value) -> ((PromotionMedia) value).media().length());
+        }
+
+        if (reloader != null) {
+            return new RefreshingCaffeineCache(name, builder.build(new RefreshOnlyLoader(reloader)));
+        }
+        if (spec.toParsableString().contains("refreshAfterWrite")) {
+            throw new IllegalStateException("Cache '" + name + "' sets refreshAfterWrite but has no CacheReloader");
+        }
+        return new CaffeineCache(name, builder.build());
+    }
+
+    /**
+     * A cache whose entries past {@code refreshAfterWrite} are reloaded in the background.
+     * Spring looks up a loading cache with {@code LoadingCache.get}, which would run the
+     * loader on every miss, in the caller's thread and outside its transaction, and count
+     * each null it returned as a load failure. Reading with {@code getIfPresent} still
+     * triggers the refresh but leaves misses, and their statistics, to the cached method.
+     */
+    private static class RefreshingCaffeineCache extends CaffeineCache {
+
+        RefreshingCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+            super(name, cache);
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+            return getNativeCache().getIfPresent(key);
+        }
+    }
+
+    /**
+     * Uses the reloader only to refresh entries already in the cache; misses are never
+     * loaded through it (see {@link RefreshingCaffeineCache})
+     */
+    private record RefreshOnlyLoader(CacheReloader reloader) implements CacheLoader<Object, Object> {
+
+        @Override
+        public Object load(Object key) {
+            return null;
+        }
+
+        @Override
+        public Object reload(Object key, Object oldValue) {
+            return reloader.load(key);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.valedosol.kaju.config.cache;
+
+/**
+ * An eviction made on one node, to be repeated by the others.
+ * A null {@code key} means the whole cache was cleared.
+ */
+public record CacheInvalidation(String origin, String cacheName, Object key) {
+
+    public boolean isClear() {
+        return key == null;
+    }
+}
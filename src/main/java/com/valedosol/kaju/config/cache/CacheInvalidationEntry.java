@@ -0,0 +1,36 @@
+package com.valedosol.kaju.config.cache;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * An invalidation published through the jdbc transport. Other nodes read the rows
+ * created since their last poll, minus an overlap window.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "cache_invalidation", indexes = @Index(name = "idx_cache_invalidation_created", columnList = "createdAt"))
+public class CacheInvalidationEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String origin;
+
+    @Column(nullable = false, length = 100)
+    private String cacheName;
+
+    // Tipo e valor da chave, ex. "java.lang.Long:5"; nulo limpa o cache inteiro
+    @Column(length = 500)
+    private String cacheKey;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,19 @@
+package com.valedosol.kaju.config.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cache.invalidation")
+@Data
+public class CacheInvalidationProperties {
+    // "in-process" for a single node, "jdbc" to share invalidations through the database
+    private String transport = "in-process";
+    // How often the jdbc transport reads invalidations published by other nodes
+    private long pollIntervalMs = 1000;
+    // How far back each poll looks past the previous one; covers slow commits and clock skew between nodes
+    private long overlapMs = 10000;
+    // How long published invalidations are kept before being deleted
+    private long retentionMinutes = 60;
+}
@@ -0,0 +1,22 @@
+package com.valedosol.kaju.config.cache;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidationEntry, Long> {
+
+    @Query("SELECT e FROM CacheInvalidationEntry e WHERE e.createdAt >= :since AND e.origin <> :origin " +
+            "ORDER BY e.createdAt, e.id")
+    List<CacheInvalidationEntry> findPublishedSince(@Param("since") LocalDateTime since, @Param("origin") String origin);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CacheInvalidationEntry e WHERE e.createdAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,22 @@
+package com.valedosol.kaju.config.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries cache invalidations between the nodes running the application.
+ * Selected with {@code cache.invalidation.transport}.
+ */
+public interface CacheInvalidationTransport {
+
+    /**
+     * Identifies this node; invalidations it published are not delivered back to it
+     */
+    String getNodeId();
+
+    void publish(CacheInvalidation invalidation);
+
+    /**
+     * Registers the handler for invalidations published by other nodes
+     */
+    void subscribe(Consumer<CacheInvalidation> handler);
+}
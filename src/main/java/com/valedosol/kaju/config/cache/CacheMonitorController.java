@@ -2,7 +2,7 @@ package com.valedosol.kaju.config.cache;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.Cache;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -37,10 +37,8 @@ public class CacheMonitorController {
         Map<String, Object> response = new HashMap<>();
         
         cacheManager.getCacheNames().forEach(cacheName -> {
-            CaffeineCache caffeineCache = (CaffeineCache) cacheManager.getCache(cacheName);
-            if (caffeineCache != null) {
-                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = 
-                    caffeineCache.getNativeCache();
+            com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache = caffeineCacheOf(cacheName);
+            if (nativeCache != null) {
                 CacheStats stats = nativeCache.stats();
                 
                 Map<String, Object> cacheStats = new HashMap<>();
@@ -61,13 +59,11 @@ public class CacheMonitorController {
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Estatísticas de um cache específico", description = "Retorna estatísticas para um cache específico")
     public ResponseEntity<Map<String, Object>> getCacheStats(@PathVariable String cacheName) {
-        CaffeineCache caffeineCache = (CaffeineCache) cacheManager.getCache(cacheName);
-        if (caffeineCache == null) {
+        com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache = caffeineCacheOf(cacheName);
+        if (nativeCache == null) {
             return ResponseEntity.notFound().build();
         }
         
-        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = 
-            caffeineCache.getNativeCache();
         CacheStats stats = nativeCache.stats();
         
         Map<String, Object> response = new HashMap<>();
@@ -85,12 +81,22 @@ public class CacheMonitorController {
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Limpar um cache específico", description = "Limpa todas as entradas de um cache específico")
     public ResponseEntity<String> clearCache(@PathVariable String cacheName) {
-        CaffeineCache caffeineCache = (CaffeineCache) cacheManager.getCache(cacheName);
-        if (caffeineCache == null) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
             return ResponseEntity.notFound().build();
         }
         
-        caffeineCache.clear();
+        // Limpa pelo cache do Spring para que a limpeza também chegue aos outros nós
+        cache.clear();
         return ResponseEntity.ok("Cache '" + cacheName + "' foi limpo com sucesso");
     }
+
+    // Caches are wrapped (see InvalidatingCache), so the Caffeine cache is reached through getNativeCache
+    private com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCacheOf(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            return nativeCache;
+        }
+        return null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.valedosol.kaju.config.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "cache")
+@Data
+public class CacheProperties {
+    // Caffeine spec per cache name (see CaffeineSpec): maximumSize, maximumWeight, expireAfterWrite,
+    // expireAfterAccess, refreshAfterWrite, weakValues, softValues, recordStats...
+    // refreshAfterWrite needs a CacheReloader registered for the cache.
+    private Map<String, String> specs = new LinkedHashMap<>(Map.of(
+            "plans", "initialCapacity=10,maximumSize=50,expireAfterWrite=60m,refreshAfterWrite=10m,recordStats",
+            "accounts", "initialCapacity=100,maximumSize=500,expireAfterWrite=5m,recordStats",
+            "targets", "initialCapacity=20,maximumSize=100,expireAfterWrite=15m,refreshAfterWrite=5m,recordStats",
+            "principals", "maximumSize=10000,expireAfterWrite=10m,recordStats",
+            "promotionMedia", "maximumWeight=67108864,expireAfterAccess=60m,recordStats"
+    ));
+}
@@ -0,0 +1,31 @@
+package com.valedosol.kaju.config.cache;
+
+import java.util.Map;
+
+/**
+ * Loads entries of one cache straight from the source of truth.
+ * <p>
+ * Entries of a cache with a reloader that are past their {@code refreshAfterWrite} are
+ * reloaded in the background while the old value keeps being served, and the warm-up
+ * entries are loaded before the application takes traffic. Misses are still filled by the
+ * cached method.
+ */
+public interface CacheReloader {
+
+    String getCacheName();
+
+    /**
+     * Loads the value for a key, the same value the cached method would return
+     *
+     * @return The value, or null when there is nothing to cache for the key
+     */
+    Object load(Object key);
+
+    /**
+     * Entries put in the cache at startup so the first requests do not miss, keyed as the
+     * cached methods key them
+     */
+    default Map<?, ?> loadWarmUpEntries() {
+        return Map.of();
+    }
+}
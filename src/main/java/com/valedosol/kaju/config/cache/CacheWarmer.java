@@ -0,0 +1,46 @@
+package com.valedosol.kaju.config.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the warm-up entries of every {@link CacheReloader} once the application is up
+ */
+@Component
+public class CacheWarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private final CacheManager cacheManager;
+    private final List<CacheReloader> reloaders;
+
+    public CacheWarmer(CacheManager cacheManager, List<CacheReloader> reloaders) {
+        this.cacheManager = cacheManager;
+        this.reloaders = reloaders;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (CacheReloader reloader : reloaders) {
+            Cache cache = cacheManager.getCache(reloader.getCacheName());
+            if (cache == null) {
+                continue;
+            }
+            try {
+                Map<?, ?> entries = reloader.loadWarmUpEntries();
+                entries.forEach(cache::put);
+                logger.info("Cache '{}' pré-carregado com {} chaves", reloader.getCacheName(), entries.size());
+            } catch (Exception e) {
+                logger.warn("Falha ao pré-carregar o cache '{}': {}", reloader.getCacheName(), e.getMessage());
+            }
+        }
+    }
+}
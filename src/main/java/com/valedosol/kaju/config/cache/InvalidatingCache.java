@@ -0,0 +1,122 @@
+package com.valedosol.kaju.config.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A node-local Caffeine cache (first level) in front of the database every node shares
+ * (second level), kept coherent across nodes by broadcasting its evictions.
+ * <p>
+ * Evictions and clears apply to the local cache at once and are broadcast to the other
+ * nodes, which drop their copy and reload it from the database on the next read. Inside a
+ * transaction the broadcast waits for the commit, so other nodes cannot reload the old row
+ * in between.
+ * <p>
+ * Puts only fill the local cache: most of them are read-through fills of a value the other
+ * nodes may hold too, and broadcasting them would evict valid copies on every miss. Writes
+ * that change a cached value must therefore evict it ({@code @CacheEvict}) rather than
+ * {@code @CachePut} it.
+ */
+public class InvalidatingCache implements Cache {
+
+    private final CaffeineCache local;
+    private final CacheInvalidationTransport transport;
+
+    public InvalidatingCache(CaffeineCache local, CacheInvalidationTransport transport) {
+        this.local = local;
+        this.transport = transport;
+    }
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    /**
+     * The Caffeine cache of this node, for statistics
+     */
+    @Override
+    public com.github.benmanes.caffeine.cache.Cache<Object, Object> getNativeCache() {
+        return local.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return local.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return local.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return local.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        local.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return local.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.evict(key);
+        broadcast(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = local.evictIfPresent(key);
+        broadcast(key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        broadcast(null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean hadEntries = local.invalidate();
+        broadcast(null);
+        return hadEntries;
+    }
+
+    /**
+     * Applies an invalidation received from another node, without broadcasting it again
+     */
+    void apply(CacheInvalidation invalidation) {
+        if (invalidation.isClear()) {
+            local.clear();
+        } else {
+            local.evict(invalidation.key());
+        }
+    }
+
+    private void broadcast(Object key) {
+        CacheInvalidation invalidation = new CacheInvalidation(transport.getNodeId(), getName(), key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    transport.publish(invalidation);
+                }
+            });
+        } else {
+            transport.publish(invalidation);
+        }
+    }
+}
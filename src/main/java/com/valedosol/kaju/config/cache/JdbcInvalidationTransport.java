@@ -0,0 +1,133 @@
+package com.valedosol.kaju.config.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Shares invalidations through the {@code cache_invalidation} table of the database every
+ * node already uses. Each node polls for rows the others published since its previous
+ * poll, so a stale entry survives on another node for about one poll interval.
+ * <p>
+ * Ids are not a safe high-water mark: a row can commit after one with a higher id has
+ * already been read. Each poll therefore reads by creation time and looks back an extra
+ * {@code overlap-ms}, and rows already applied within that window are skipped by id.
+ * <p>
+ * Keys of type String, Long or Integer are evicted individually on the other nodes; any
+ * other key makes them clear the whole cache, which is always safe.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.transport", havingValue = "jdbc")
+public class JdbcInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcInvalidationTransport.class);
+
+    private static final Set<Class<?>> SUPPORTED_KEY_TYPES = Set.of(String.class, Long.class, Integer.class);
+
+    private final CacheInvalidationRepository repository;
+    private final CacheInvalidationProperties properties;
+    private final TransactionTemplate requiresNew;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<CacheInvalidation>> handlers = new CopyOnWriteArrayList<>();
+
+    // Início da leitura anterior; a próxima relê a partir dele menos a janela de sobreposição
+    private LocalDateTime lastPollStart = LocalDateTime.now();
+    // Registros já aplicados que ainda estão dentro da janela, com a data de criação de cada um
+    private final Map<Long, LocalDateTime> appliedInWindow = new HashMap<>();
+
+    public JdbcInvalidationTransport(CacheInvalidationRepository repository,
+                                     CacheInvalidationProperties properties,
+                                     PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.properties = properties;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        CacheInvalidationEntry entry = new CacheInvalidationEntry();
+        entry.setOrigin(invalidation.origin());
+        entry.setCacheName(invalidation.cacheName());
+        entry.setCacheKey(encodeKey(invalidation.key()));
+        entry.setCreatedAt(LocalDateTime.now());
+        // Pode ser chamado depois do commit de outra transação; grava sempre na sua própria
+        requiresNew.executeWithoutResult(status -> repository.save(entry));
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> handler) {
+        handlers.add(handler);
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        try {
+            LocalDateTime pollStart = LocalDateTime.now();
+            LocalDateTime since = lastPollStart.minus(Duration.ofMillis(properties.getOverlapMs()));
+            appliedInWindow.values().removeIf(createdAt -> createdAt.isBefore(since));
+
+            for (CacheInvalidationEntry entry : repository.findPublishedSince(since, nodeId)) {
+                if (appliedInWindow.putIfAbsent(entry.getId(), entry.getCreatedAt()) != null) {
+                    continue;
+                }
+                CacheInvalidation invalidation = new CacheInvalidation(entry.getOrigin(), entry.getCacheName(),
+                        decodeKey(entry.getCacheKey()));
+                logger.debug("Invalidação do cache {} recebida do nó {}", entry.getCacheName(), entry.getOrigin());
+                handlers.forEach(handler -> handler.accept(invalidation));
+            }
+            lastPollStart = pollStart;
+        } catch (Exception e) {
+            logger.error("Erro ao ler invalidações de cache: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelay = 600000, initialDelay = 600000)
+    public void purge() {
+        int deleted = repository.deleteOlderThan(LocalDateTime.now().minusMinutes(properties.getRetentionMinutes()));
+        logger.debug("{} invalidações de cache antigas removidas", deleted);
+    }
+
+    private static String encodeKey(Object key) {
+        if (key == null || !SUPPORTED_KEY_TYPES.contains(key.getClass())) {
+            return null;
+        }
+        return key.getClass().getName() + ":" + key;
+    }
+
+    private static Object decodeKey(String encoded) {
+        if (encoded == null) {
+            return null;
+        }
+        int separator = encoded.indexOf(':');
+        String type = encoded.substring(0, separator);
+        String value = encoded.substring(separator + 1);
+        if (Long.class.getName().equals(type)) {
+            return Long.valueOf(value);
+        }
+        if (Integer.class.getName().equals(type)) {
+            return Integer.valueOf(value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,14 @@
+package com.valedosol.kaju.config.http;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "http.circuit-breaker")
+@Data
+public class CircuitBreakerProperties {
+    private int failureThreshold = 5;
+    private long openSeconds = 30;
+    private int halfOpenProbes = 1;
+}
@@ -0,0 +1,34 @@
+package com.valedosol.kaju.config.http;
+
+import com.valedosol.kaju.common.concurrent.CircuitBreaker;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One circuit breaker per messaging provider and instance, created on first use
+ */
+@Component
+public class CircuitBreakerRegistry {
+
+    private final CircuitBreakerProperties properties;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerRegistry(CircuitBreakerProperties properties) {
+        this.properties = properties;
+    }
+
+    public CircuitBreaker get(String provider, String instance) {
+        return breakers.computeIfAbsent(provider + ":" + instance, name -> new CircuitBreaker(name,
+                properties.getFailureThreshold(),
+                Duration.ofSeconds(properties.getOpenSeconds()),
+                properties.getHalfOpenProbes()));
+    }
+
+    public Collection<CircuitBreaker> getAll() {
+        return breakers.values();
+    }
+}
@@ -0,0 +1,72 @@
+package com.valedosol.kaju.config.http;
+
+import com.valedosol.kaju.common.concurrent.CircuitBreaker;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/http")
+@Tag(name = "HTTP Client", description = "Endpoints para monitoramento do pool de conexões HTTP")
+public class HttpClientMonitorController {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CircuitBreakerRegistry circuitBreakers;
+
+    public HttpClientMonitorController(PoolingHttpClientConnectionManager connectionManager,
+                                       CircuitBreakerRegistry circuitBreakers) {
+        this.connectionManager = connectionManager;
+        this.circuitBreakers = circuitBreakers;
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Estatísticas do pool de conexões", description = "Retorna o uso total e por rota do pool de conexões HTTP")
+    public ResponseEntity<Map<String, Object>> getPoolStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("total", toMap(connectionManager.getTotalStats()));
+
+        Map<String, Object> routes = new HashMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            routes.put(route.getTargetHost().toURI(), toMap(connectionManager.getStats(route)));
+        }
+        response.put("routes", routes);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/circuit-breakers")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Estado dos circuit breakers", description = "Retorna o estado do circuit breaker de cada provedor e instância")
+    public ResponseEntity<Map<String, Object>> getCircuitBreakers() {
+        Map<String, Object> response = new HashMap<>();
+        for (CircuitBreaker breaker : circuitBreakers.getAll()) {
+            Map<String, Object> breakerState = new HashMap<>();
+            breakerState.put("state", breaker.getState().name());
+            breakerState.put("consecutiveFailures", breaker.getConsecutiveFailures());
+            breakerState.put("remainingOpenMs", breaker.getRemainingOpenTime().toMillis());
+            response.put(breaker.getName(), breakerState);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    private Map<String, Object> toMap(PoolStats stats) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("leased", stats.getLeased());
+        result.put("available", stats.getAvailable());
+        result.put("pending", stats.getPending());
+        result.put("max", stats.getMax());
+        return result;
+    }
+}
@@ -0,0 +1,19 @@
+package com.valedosol.kaju.config.http;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "http.client")
+@Data
+public class HttpClientProperties {
+    private int maxTotal = 200;
+    private int maxPerRoute = 50;
+    private long connectTimeoutMs = 5000;
+    private long readTimeoutMs = 30000;
+    private long connectionRequestTimeoutMs = 5000;
+    private long idleEvictionSeconds = 30;
+    private long timeToLiveSeconds = 300;
+    private long validateAfterInactivityMs = 2000;
+}
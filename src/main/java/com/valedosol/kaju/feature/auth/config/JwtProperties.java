@@ -0,0 +1,22 @@
+package com.valedosol.kaju.feature.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "jwt.token")
+@Data
+public class JwtProperties {
+    // Base64 HMAC secret new tokens are signed with
+    private String secret;
+    // Token lifetime in minutes
+    private Long expires;
+    // Key id written to the "kid" header of new tokens
+    private String keyId = "default";
+    // Earlier secrets by key id, still accepted until the tokens they signed expire
+    private Map<String, String> retiredKeys = new LinkedHashMap<>();
+}
@@ -1,5 +1,6 @@
 package com.valedosol.kaju.feature.auth.controller;
 
+import com.valedosol.kaju.common.exception.TooManyRequestsException;
 import com.valedosol.kaju.feature.auth.dto.LoginRequest;
 import com.valedosol.kaju.feature.auth.dto.SignupRequest;
 import com.valedosol.kaju.feature.auth.service.AuthenticationService;
@@ -41,7 +42,8 @@ public class AuthenticationController {
     @Operation(summary = "Login de usuário", description = "Autentica um usuário e retorna um token JWT em um cookie")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Login realizado com sucesso"),
-            @ApiResponse(responseCode = "401", description = "Credenciais inválidas", content = @Content(schema = @Schema(implementation = String.class)))
+            @ApiResponse(responseCode = "401", description = "Credenciais inválidas", content = @Content(schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "429", description = "Muitas tentativas simultâneas", content = @Content(schema = @Schema(implementation = String.class)))
     })
     @PostMapping("/signin")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest, HttpServletResponse response) {
@@ -49,6 +51,8 @@ public class AuthenticationController {
             String email = authenticationService.login(loginRequest, response);
 
             return new ResponseEntity<>(email + " está logado.", HttpStatus.OK);
+        } catch (TooManyRequestsException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.TOO_MANY_REQUESTS);
         } catch (Exception e) {
             logger.error(e.getMessage());
             return new ResponseEntity<>(e.getMessage(), HttpStatus.UNAUTHORIZED);
@@ -59,13 +63,16 @@ public class AuthenticationController {
     @Operation(summary = "Registro de usuário", description = "Registra um novo usuário no sistema")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Usuário criado com sucesso"),
-            @ApiResponse(responseCode = "401", description = "Erro ao criar usuário", content = @Content(schema = @Schema(implementation = String.class)))
+            @ApiResponse(responseCode = "401", description = "Erro ao criar usuário", content = @Content(schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "429", description = "Muitas tentativas simultâneas", content = @Content(schema = @Schema(implementation = String.class)))
     })
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@RequestBody SignupRequest signupRequest, HttpServletRequest request) {
         try {
             authenticationService.registerAccount(signupRequest);
             return new ResponseEntity<>("Conta criada com sucesso.", HttpStatus.CREATED);
+        } catch (TooManyRequestsException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.TOO_MANY_REQUESTS);
         } catch (Exception e) {
             logger.error(e.getMessage());
             return new ResponseEntity<>(e.getMessage(), HttpStatus.UNAUTHORIZED);
@@ -79,8 +86,8 @@ public class AuthenticationController {
     })
     
     @PostMapping("/signout")
-    public ResponseEntity<?> logoutUser(HttpServletResponse response) {
-        authenticationService.logoutUser(response);
+    public ResponseEntity<?> logoutUser(HttpServletRequest request, HttpServletResponse response) {
+        authenticationService.logoutUser(request, response);
         return new ResponseEntity("Você saiu!", HttpStatus.OK);
     }
 
@@ -0,0 +1,28 @@
+package com.valedosol.kaju.feature.auth.dto;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The verified contents of a session token. Immutable, so it can be handed between
+ * threads without copying.
+ *
+ * @param tokenId Unique id of the token, used to revoke it
+ * @param email The account the token was issued to
+ * @param accountId The account's id; null for tokens issued before it was a claim
+ * @param roles The account's roles when the token was issued; null for older tokens
+ * @param expiresAt When the token stops being valid
+ */
+public record ParsedToken(String tokenId, String email, Long accountId, List<String> roles, Date expiresAt) {
+
+    public ParsedToken {
+        roles = roles == null ? null : List.copyOf(roles);
+    }
+
+    /**
+     * Whether the token carries everything needed to authenticate without loading the account
+     */
+    public boolean isSelfContained() {
+        return accountId != null && roles != null;
+    }
+}
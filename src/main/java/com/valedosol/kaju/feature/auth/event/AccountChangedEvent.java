@@ -0,0 +1,8 @@
+package com.valedosol.kaju.feature.auth.event;
+
+/**
+ * Published when something an authenticated principal is built from may have changed:
+ * roles, password, subscription, or the account being removed.
+ */
+public record AccountChangedEvent(String email) {
+}
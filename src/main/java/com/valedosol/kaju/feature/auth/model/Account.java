@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -17,6 +19,9 @@ import com.valedosol.kaju.feature.subscription.model.SubscriptionPlan;
 
 @Entity
 @Table
+@BatchSize(size = 50)
+// Saves only write the columns that changed, so they do not undo concurrent bulk updates (quota, password)
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
@@ -37,7 +42,9 @@ public class Account {
     @NotBlank(message = "Password is required")
     private String password;
 
+    // Loaded in batches when many accounts are read at once (creators and target owners of a dispatch batch)
     @ManyToMany(fetch = FetchType.EAGER )
+    @BatchSize(size = 50)
     @JoinTable(name = "account_roles",
             joinColumns = @JoinColumn(name = "account_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
@@ -54,9 +61,12 @@ public class Account {
 
     }
 
-    // Track subscription usage
+    // Track subscription usage. Only the quota queries of AccountRepository update these, through
+    // SendQuotaService; an entity save must never overwrite a reservation made in the meantime
     @Builder.Default
+    @Column(updatable = false)
     private Integer remainingWeeklySends = 0;
+    @Column(updatable = false)
     private LocalDateTime lastResetDate;
 
 }
\ No newline at end of file
@@ -2,12 +2,67 @@ package com.valedosol.kaju.feature.auth.repository;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.valedosol.kaju.feature.auth.model.Account;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByEmail(String email);
     Boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    @Query("SELECT a.remainingWeeklySends FROM Account a WHERE a.id = :accountId")
+    Optional<Integer> findRemainingWeeklySends(@Param("accountId") Long accountId);
+
+    @Query("SELECT a.email FROM Account a WHERE a.id = :accountId")
+    Optional<String> findEmailById(@Param("accountId") Long accountId);
+
+    // Only succeeds when the account still has the requested sends; concurrent reservations cannot overdraw
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.remainingWeeklySends = a.remainingWeeklySends - :count " +
+            "WHERE a.id = :accountId AND a.remainingWeeklySends >= :count")
+    int reserveWeeklySends(@Param("accountId") Long accountId, @Param("count") int count);
+
+    // Never above the plan's allowance: the reservation may belong to a window that was renewed since
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.remainingWeeklySends = LEAST(a.remainingWeeklySends + :count, " +
+            "(SELECT sp.weeklyAllowedSends FROM SubscriptionPlan sp WHERE sp = a.subscriptionPlan)) " +
+            "WHERE a.id = :accountId AND a.subscriptionPlan IS NOT NULL")
+    int refundWeeklySends(@Param("accountId") Long accountId, @Param("count") int count);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Account a SET a.password = :password WHERE a.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
+
+    @Query("SELECT a.lastResetDate FROM Account a WHERE a.id = :accountId")
+    Optional<LocalDateTime> findLastResetDate(@Param("accountId") Long accountId);
+
+    // Starts a new quota window; the window check makes it a no-op when another request renewed it first
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.remainingWeeklySends = " +
+            "(SELECT sp.weeklyAllowedSends FROM SubscriptionPlan sp WHERE sp = a.subscriptionPlan), " +
+            "a.lastResetDate = :windowStart " +
+            "WHERE a.id = :accountId AND a.subscriptionPlan IS NOT NULL " +
+            "AND (a.lastResetDate IS NULL OR a.lastResetDate < :expiredBefore)")
+    int renewWeeklySends(@Param("accountId") Long accountId,
+                         @Param("windowStart") LocalDateTime windowStart,
+                         @Param("expiredBefore") LocalDateTime expiredBefore);
+
+    // Starts a window at the plan's allowance right away, e.g. when a subscription is activated
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.remainingWeeklySends = " +
+            "(SELECT sp.weeklyAllowedSends FROM SubscriptionPlan sp WHERE sp = a.subscriptionPlan), " +
+            "a.lastResetDate = :windowStart " +
+            "WHERE a.id = :accountId AND a.subscriptionPlan IS NOT NULL")
+    int startWeeklySends(@Param("accountId") Long accountId, @Param("windowStart") LocalDateTime windowStart);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.remainingWeeklySends = :sends WHERE a.id = :accountId")
+    int setWeeklySends(@Param("accountId") Long accountId, @Param("sends") int sends);
+}
@@ -3,12 +3,15 @@ package com.valedosol.kaju.feature.auth.service;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.valedosol.kaju.common.exception.ResourceNotFoundException;
+import com.valedosol.kaju.feature.auth.event.AccountChangedEvent;
 import com.valedosol.kaju.feature.auth.model.Account;
 import com.valedosol.kaju.feature.auth.repository.AccountRepository;
+import com.valedosol.kaju.feature.promotion.service.SendQuotaService;
 
 import java.util.List;
 
@@ -17,9 +20,14 @@ import java.util.List;
 public class AccountService {
 
     private final AccountRepository accountRepository;
+    private final SendQuotaService quotaService;
+    private final ApplicationEventPublisher eventPublisher;
     
-    public AccountService(AccountRepository accountRepository) {
+    public AccountService(AccountRepository accountRepository, SendQuotaService quotaService,
+                          ApplicationEventPublisher eventPublisher) {
         this.accountRepository = accountRepository;
+        this.quotaService = quotaService;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
@@ -57,37 +65,40 @@ public class AccountService {
     }
     
     /**
-     * Update an account - we update the cache with the new values
+     * Update an account - we evict it so every node reloads the new values. The cache holds
+     * each account under its id and its email, and the email itself may change, so the whole
+     * cache is cleared
      */
-    @CachePut(value = "accounts", key = "#account.id")
+    @CacheEvict(value = "accounts", allEntries = true)
     @Transactional
     public Account updateAccount(Account account) {
         if (!accountRepository.existsById(account.getId())) {
             throw new ResourceNotFoundException("Account not found with id: " + account.getId());
         }
+        // Roles or password may have changed
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getEmail()));
         return accountRepository.save(account);
     }
     
     /**
-     * Delete an account - we evict it from the cache
+     * Delete an account - we clear the cache, as the account is also cached under its email
      */
-    @CacheEvict(value = "accounts", key = "#id")
+    @CacheEvict(value = "accounts", allEntries = true)
     @Transactional
     public void deleteAccount(Long id) {
-        if (!accountRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Account not found with id: " + id);
-        }
-        accountRepository.deleteById(id);
+        Account account = accountRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + id));
+        eventPublisher.publishEvent(new AccountChangedEvent(account.getEmail()));
+        accountRepository.delete(account);
     }
     
     /**
-     * Update account remaining sends - common operation that would benefit from caching
+     * Update account remaining sends - the quota service writes them and evicts the cached account
      */
-    @CachePut(value = "accounts", key = "#id")
     @Transactional
     public Account updateRemainingWeeklySends(Long id, Integer sends) {
         Account account = getAccountById(id);
-        account.setRemainingWeeklySends(sends);
-        return accountRepository.save(account);
+        quotaService.setRemainingWeeklySends(id, sends);
+        return account;
     }
 }
\ No newline at end of file
@@ -5,16 +5,17 @@ import com.valedosol.kaju.feature.auth.dto.LoginRequest;
 import com.valedosol.kaju.feature.auth.dto.SignupRequest;
 import com.valedosol.kaju.feature.auth.model.Account;
 import com.valedosol.kaju.feature.auth.repository.AccountRepository;
+import com.valedosol.kaju.security.AccountPrincipal;
 
 
 import jakarta.persistence.EntityExistsException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -46,11 +47,11 @@ public class AuthenticationService {
 
             System.out.println("Authentication successful for user: " + loginRequest.getEmail());
 
-            String token = jwtService.generateToken(loginRequest.getEmail(), response);
+            AccountPrincipal principal = (AccountPrincipal) authenticationResponse.getPrincipal();
+            String token = jwtService.generateToken(principal, response);
             System.out.println("JWT token generated: " + token.substring(0, 10) + "...");
 
-            UserDetails userDetails = (UserDetails) authenticationResponse.getPrincipal();
-            return userDetails.getUsername();
+            return principal.getUsername();
         } catch (Exception e) {
             System.out.println("Authentication failed: " + e.getMessage());
             throw e;
@@ -70,7 +71,11 @@ public class AuthenticationService {
         accountRepository.save(account);
 
     }
-    public void logoutUser(HttpServletResponse response){
+    public void logoutUser(HttpServletRequest request, HttpServletResponse response){
+        String token = jwtService.getJwtFromCookie(request);
+        if (token != null) {
+            jwtService.revokeToken(token);
+        }
         jwtService.removeTokenFromCookie(response);
     }
 }
\ No newline at end of file
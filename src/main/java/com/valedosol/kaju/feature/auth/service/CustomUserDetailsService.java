@@ -2,28 +2,77 @@ package com.valedosol.kaju.feature.auth.service;
 
 
 
+import com.valedosol.kaju.feature.auth.event.AccountChangedEvent;
 import com.valedosol.kaju.feature.auth.model.Account;
 import com.valedosol.kaju.feature.auth.repository.AccountRepository;
+import com.valedosol.kaju.security.AccountPrincipal;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Loads principals through the "principals" cache, keyed by email.
+ * The cache holds immutable snapshots and every call builds a new principal from one,
+ * because Spring Security erases the password of the principal it authenticated.
+ * Entries are evicted when an {@link AccountChangedEvent} is published.
+ * <p>
+ * Also stores rehashed passwords when a login upgrades a hash to the current algorithm.
+ */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private  AccountRepository accountRepository;
-    public CustomUserDetailsService(AccountRepository accountRepository) {
+    private final Cache principalCache;
+
+    public CustomUserDetailsService(AccountRepository accountRepository, CacheManager cacheManager) {
         this.accountRepository = accountRepository;
+        this.principalCache = cacheManager.getCache("principals");
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        // Sem Cache.get(key, loader): ele embrulharia o UsernameNotFoundException, e o
+        // provider passaria a responder diferente para e-mail inexistente e senha errada
+        PrincipalSnapshot snapshot = principalCache.get(email, PrincipalSnapshot.class);
+        if (snapshot == null) {
+            snapshot = loadSnapshot(email);
+            principalCache.put(email, snapshot);
+        }
+
+        return new AccountPrincipal(
+                snapshot.accountId(),
+                snapshot.email(),
+                snapshot.password(),
+                snapshot.authorities()
+        );
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        accountRepository.updatePassword(user.getUsername(), newPassword);
+        principalCache.evict(user.getUsername());
+
+        AccountPrincipal principal = (AccountPrincipal) user;
+        return new AccountPrincipal(principal.getAccountId(), principal.getUsername(), newPassword,
+                principal.getAuthorities());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        principalCache.evict(event.email());
+    }
+
+    private PrincipalSnapshot loadSnapshot(String email) {
         Account account = accountRepository.findByEmail(email)
                 .orElseThrow(() ->
                         new UsernameNotFoundException(email + " não encontrado." ));
@@ -32,12 +81,11 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .getRoles()
                 .stream()
                 .map((role) -> new SimpleGrantedAuthority(role.getErole().name()))
-                .collect(Collectors.toSet());
+                .collect(Collectors.toUnmodifiableSet());
 
-        return new org.springframework.security.core.userdetails.User(
-                account.getEmail(),
-                account.getPassword(),
-                authorities
-        );
+        return new PrincipalSnapshot(account.getId(), account.getEmail(), account.getPassword(), authorities);
+    }
+
+    private record PrincipalSnapshot(Long accountId, String email, String password, Set<GrantedAuthority> authorities) {
     }
-}
\ No newline at end of file
+}
@@ -1,39 +1,101 @@
 package com.valedosol.kaju.feature.auth.service;
 
+import com.valedosol.kaju.feature.auth.config.JwtProperties;
+import com.valedosol.kaju.feature.auth.dto.ParsedToken;
+import com.valedosol.kaju.security.AccountPrincipal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.security.Key;
 import java.util.Date;
-
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues and validates the JWT session cookie.
+ * <p>
+ * Signing keys are decoded once at startup into a key ring indexed by key id. New
+ * tokens are signed with the active key and carry its id in the "kid" header; tokens
+ * signed with a retired key keep validating until they expire, so the secret can be
+ * rotated without logging everyone out. Tokens issued before key ids existed have no
+ * "kid" and are checked against the active key.
+ * <p>
+ * Tokens carry the account id and roles, so authenticated requests are served without
+ * loading the account. Signing out revokes the token's id until the token would have
+ * expired anyway; revocations are kept in memory, per node.
+ */
 @Service
 public class JwtService {
 
-    @Value("${jwt.token.secret}")
-    private String secret;
-
-    @Value("${jwt.token.expires}")
-    private Long jwtExpiresMinutes;
-
-    private Claims claims;
+    private static final String ACCOUNT_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+
+    private final Long jwtExpiresMinutes;
+    private final String activeKeyId;
+    private final SecretKey activeKey;
+    private final Map<String, SecretKey> keyRing;
+    // JwtParser is immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser;
+    private final Cache<String, Boolean> revokedTokens;
+
+    public JwtService(JwtProperties properties) {
+        this.jwtExpiresMinutes = properties.getExpires();
+        this.activeKeyId = properties.getKeyId();
+        this.activeKey = decodeKey(properties.getSecret());
+
+        Map<String, SecretKey> keys = new HashMap<>();
+        properties.getRetiredKeys().forEach((keyId, secret) -> keys.put(keyId, decodeKey(secret)));
+        keys.put(activeKeyId, activeKey);
+        this.keyRing = Map.copyOf(keys);
+
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(ProtectedHeader header) {
+                        return findKey(header.getKeyId());
+                    }
+                })
+                .build();
+
+        this.revokedTokens = Caffeine.newBuilder()
+                .expireAfterWrite(jwtExpiresMinutes, TimeUnit.MINUTES)
+                .maximumSize(100_000)
+                .build();
+    }
 
-    public String generateToken(String email, HttpServletResponse response) {
+    public String generateToken(AccountPrincipal principal, HttpServletResponse response) {
         // System.out.println("Generating token for: " + email);
 
+        List<String> roles = principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
         String JWT = Jwts.builder()
-                .subject(email)
+                .id(UUID.randomUUID().toString())
+                .subject(principal.getUsername())
+                .claim(ACCOUNT_ID_CLAIM, principal.getAccountId())
+                .claim(ROLES_CLAIM, roles)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiresMinutes * 60 * 1000))
-                .signWith(getSignInKey())
+                .header().keyId(activeKeyId).and()
+                .signWith(activeKey)
                 .compact();
 
         // System.out.println("Token generated: " + JWT.substring(0, 10) + "...");
@@ -66,25 +128,46 @@ public class JwtService {
         return null; // Return null if no JWT cookie found
     }
 
-    public void validateToken(String token) throws JwtException {
-        // System.out.println("Validating token: " + token.substring(0, 10) + "...");
+    /**
+     * Verifies the token's signature and expiry
+     *
+     * @param token The compact JWT from the session cookie
+     * @return The verified contents of the token
+     * @throws JwtException When the token is malformed, forged, expired or revoked
+     */
+    public ParsedToken validateToken(String token) throws JwtException {
+        // Nothing is stored on the service: the claims stay local to this call
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+
+        // Check if token is expired
+        Date expiration = claims.getExpiration();
+        if (expiration != null && expiration.before(new Date())) {
+            throw new JwtException("Token expired");
+        }
+        if (claims.getId() != null && revokedTokens.getIfPresent(claims.getId()) != null) {
+            throw new JwtException("Token revoked");
+        }
+
+        @SuppressWarnings("unchecked")
+        List<String> roles = claims.get(ROLES_CLAIM, List.class);
+        Number accountId = claims.get(ACCOUNT_ID_CLAIM, Number.class);
+        return new ParsedToken(claims.getId(), claims.getSubject(),
+                accountId == null ? null : accountId.longValue(), roles, expiration);
+    }
 
+    /**
+     * Rejects the token from now on, even though its signature and expiry are still valid
+     *
+     * @param token The compact JWT to revoke; invalid tokens are ignored
+     */
+    public void revokeToken(String token) {
         try {
-            claims = Jwts.parser()
-                    .verifyWith(getSignInKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-
-            // System.out.println("Token validation successful");
-            // Check if token is expired
-            Date expiration = claims.getExpiration();
-            if (expiration != null && expiration.before(new Date())) {
-                throw new JwtException("Token expired");
+            String tokenId = parser.parseSignedClaims(token).getPayload().getId();
+            if (tokenId != null) {
+                revokedTokens.put(tokenId, Boolean.TRUE);
             }
         } catch (JwtException e) {
-            // System.out.println("Token validation failed: " + e.getMessage());
-            throw new JwtException(e.getMessage());
+            // Um token inválido já não autentica ninguém
         }
     }
 
@@ -95,14 +178,21 @@ public class JwtService {
         response.addCookie(cookie);
     }
 
-    private SecretKey getSignInKey() {
-        // SignatureAlgorithm.HS256, this.secret
-        byte[] keyBytes = Decoders.BASE64.decode(this.secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private SecretKey findKey(String keyId) {
+        if (keyId == null) {
+            return activeKey;
+        }
+        SecretKey key = keyRing.get(keyId);
+        if (key == null) {
+            throw new JwtException("Unknown signing key: " + keyId);
+        }
+        return key;
     }
 
-    public String extractEmail() {
-        return claims.getSubject();
+    private static SecretKey decodeKey(String secret) {
+        // SignatureAlgorithm.HS256, this.secret
+        byte[] keyBytes = Decoders.BASE64.decode(secret);
+        return Keys.hmacShaKeyFor(keyBytes);
     }
 
 }
@@ -0,0 +1,218 @@
+package com.valedosol.kaju.feature.evolution.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.valedosol.kaju.common.concurrent.CircuitBreaker;
+import com.valedosol.kaju.common.concurrent.CircuitOpenException;
+import com.valedosol.kaju.config.http.CircuitBreakerRegistry;
+import com.valedosol.kaju.feature.evolution.config.WhatsappProperties;
+import com.valedosol.kaju.feature.evolution.dto.MediaMessageRequest;
+import com.valedosol.kaju.feature.evolution.dto.MessageResponse;
+import com.valedosol.kaju.feature.evolution.dto.OutgoingMessage;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking client for the Evolution API.
+ * All calls share one pooled connection provider, so many requests can be in
+ * flight without holding a thread each.
+ */
+@Component
+@Slf4j
+public class ReactiveWhatsappClient {
+
+    private static final String SEND_PATH = "/api/v1/message/send";
+    private static final String PROVIDER = "whatsapp";
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final WhatsappProperties properties;
+    private final ConnectionProvider connectionProvider;
+    private final CircuitBreakerRegistry circuitBreakers;
+
+    public ReactiveWhatsappClient(WhatsappProperties properties, CircuitBreakerRegistry circuitBreakers) {
+        this.properties = properties;
+        this.circuitBreakers = circuitBreakers;
+        this.objectMapper = new ObjectMapper();
+        this.connectionProvider = ConnectionProvider.builder("whatsapp-client")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .maxIdleTime(Duration.ofMillis(properties.getMaxIdleTimeMs()))
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, properties.getConnectTimeoutMs())
+                .responseTimeout(Duration.ofMillis(properties.getResponseTimeoutMs()));
+
+        this.webClient = WebClient.builder()
+                .baseUrl(properties.getUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+    }
+
+    public Mono<MessageResponse> sendText(String token, String instanceId, String to, String messageText) {
+        log.info("Sending text message to {} using instance {}", to, instanceId);
+
+        ObjectNode requestBody = objectMapper.createObjectNode()
+                .put("to", to)
+                .put("type", "text");
+
+        ObjectNode textNode = objectMapper.createObjectNode()
+                .put("body", messageText);
+        requestBody.set("text", textNode);
+
+        return postMessage(token, instanceId, requestBody)
+                .doOnError(e -> log.error("Error sending text message: {}", e.getMessage(), e));
+    }
+
+    public Mono<MessageResponse> sendMedia(String token, String instanceId, String to, MediaMessageRequest mediaRequest) {
+        log.info("Sending media message to {} using instance {}", to, instanceId);
+
+        ObjectNode requestBody = objectMapper.createObjectNode()
+                .put("to", to)
+                .put("type", mediaRequest.getType());
+
+        ObjectNode mediaNode = objectMapper.createObjectNode();
+
+        if (mediaRequest.getUrl() != null) {
+            mediaNode.put("url", mediaRequest.getUrl());
+        } else if (mediaRequest.getBase64() != null) {
+            mediaNode.put("base64", mediaRequest.getBase64());
+        }
+
+        if (mediaRequest.getCaption() != null) {
+            mediaNode.put("caption", mediaRequest.getCaption());
+        }
+
+        if (mediaRequest.getFilename() != null) {
+            mediaNode.put("filename", mediaRequest.getFilename());
+        }
+
+        requestBody.set(mediaRequest.getType(), mediaNode);
+
+        return postMessage(token, instanceId, requestBody)
+                .doOnError(e -> log.error("Error sending media message: {}", e.getMessage(), e));
+    }
+
+    /**
+     * Sends many messages through one instance, keeping up to {@code evolution.api.send-concurrency}
+     * requests in flight. A failed send does not stop the others: it is emitted as an
+     * unsuccessful response carrying the error message.
+     *
+     * @return One response per message, in the same order as the messages
+     */
+    public Flux<MessageResponse> sendMany(String token, String instanceId, Flux<OutgoingMessage> messages) {
+        return messages.flatMapSequential(message -> send(token, instanceId, message)
+                        .onErrorResume(e -> Mono.just(new MessageResponse(false, e.getMessage(), null))),
+                properties.getSendConcurrency());
+    }
+
+    public Mono<JsonNode> getInstanceStatus(String token, String instanceId) {
+        log.info("Checking status for instance {}", instanceId);
+
+        return webClient.get()
+                .uri("/api/v1/instance/status")
+                .header("Authorization", "Bearer " + token)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .doOnError(e -> log.error("Error getting instance status: {}", e.getMessage(), e));
+    }
+
+    public Mono<JsonNode> disconnectInstance(String token, String instanceId) {
+        log.info("Disconnecting instance {}", instanceId);
+
+        return webClient.delete()
+                .uri("/api/v1/instance/logout")
+                .header("Authorization", "Bearer " + token)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .doOnError(e -> log.error("Error disconnecting instance: {}", e.getMessage(), e));
+    }
+
+    public Mono<JsonNode> createInstance(String name) {
+        log.info("Creating new instance with name {}", name);
+
+        ObjectNode requestBody = objectMapper.createObjectNode()
+                .put("instanceName", name);
+
+        return webClient.post()
+                .uri("/api/v1/instance/create")
+                .header("Authorization", "Bearer " + properties.getKey())
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .doOnError(e -> log.error("Error creating instance: {}", e.getMessage(), e));
+    }
+
+    public Mono<JsonNode> getQrCode(String token, String instanceId) {
+        log.info("Getting QR code for instance {}", instanceId);
+
+        return webClient.get()
+                .uri("/api/v1/instance/qrcode")
+                .header("Authorization", "Bearer " + token)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .doOnError(e -> log.error("Error getting QR code: {}", e.getMessage(), e));
+    }
+
+    private Mono<MessageResponse> send(String token, String instanceId, OutgoingMessage message) {
+        if (message.getMedia() != null) {
+            return sendMedia(token, instanceId, message.getTo(), message.getMedia());
+        }
+        return sendText(token, instanceId, message.getTo(), message.getText());
+    }
+
+    /**
+     * Posts a message through the instance's circuit breaker. While the circuit is open
+     * the call fails fast with {@link CircuitOpenException} instead of reaching the API.
+     */
+    private Mono<MessageResponse> postMessage(String token, String instanceId, ObjectNode requestBody) {
+        CircuitBreaker breaker = circuitBreakers.get(PROVIDER, instanceId);
+        return Mono.defer(() -> {
+            if (!breaker.tryAcquirePermission()) {
+                return Mono.error(new CircuitOpenException(breaker.getName()));
+            }
+            return webClient.post()
+                    .uri(SEND_PATH)
+                    .header("Authorization", "Bearer " + token)
+                    .bodyValue(requestBody)
+                    .retrieve()
+                    .bodyToMono(MessageResponse.class)
+                    .doOnSuccess(response -> breaker.onSuccess())
+                    .doOnError(e -> recordFailure(breaker, e))
+                    .doOnCancel(breaker::releasePermission);
+        });
+    }
+
+    private void recordFailure(CircuitBreaker breaker, Throwable error) {
+        // A 4xx means the API is up and refused this message; only outages and throttling open the circuit
+        if (error instanceof WebClientResponseException responseError
+                && responseError.getStatusCode().is4xxClientError()
+                && responseError.getStatusCode().value() != 429
+                && responseError.getStatusCode().value() != 408) {
+            breaker.onSuccess();
+        } else {
+            breaker.onFailure();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionProvider.dispose();
+    }
+}
@@ -11,4 +11,14 @@ public class WhatsappProperties {
     private String url;
     private String key;
     private String instance;
-}
\ No newline at end of file
+
+    // Shared connection pool of the reactive client
+    private int maxConnections = 100;
+    private int pendingAcquireMaxCount = 1000;
+    private long maxIdleTimeMs = 30000;
+    private int connectTimeoutMs = 5000;
+    private long responseTimeoutMs = 30000;
+
+    // How many sends sendMany keeps in flight at once
+    private int sendConcurrency = 50;
+}
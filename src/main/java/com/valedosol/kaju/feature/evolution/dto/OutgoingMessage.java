@@ -0,0 +1,16 @@
+package com.valedosol.kaju.feature.evolution.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutgoingMessage {
+    private String to;
+    private String text; // Used when media is null
+    private MediaMessageRequest media;
+}
@@ -5,7 +5,6 @@ import com.valedosol.kaju.common.exception.BusinessException;
 import com.valedosol.kaju.common.exception.ResourceNotFoundException;
 import com.valedosol.kaju.config.UserContext;
 import com.valedosol.kaju.feature.auth.model.Account;
-import com.valedosol.kaju.feature.auth.repository.AccountRepository;
 import com.valedosol.kaju.feature.auth.service.AccountService;
 import com.valedosol.kaju.feature.target.model.Target;
 import com.valedosol.kaju.feature.target.service.TargetService;
@@ -13,6 +12,7 @@ import com.valedosol.kaju.feature.evolution.client.WhatsappClient;
 import com.valedosol.kaju.feature.evolution.config.WhatsappProperties;
 import com.valedosol.kaju.feature.evolution.dto.MediaMessageRequest;
 import com.valedosol.kaju.feature.evolution.dto.MessageResponse;
+import com.valedosol.kaju.feature.evolution.dto.OutgoingMessage;
 import com.valedosol.kaju.feature.evolution.model.WhatsappInstance;
 import com.valedosol.kaju.feature.evolution.model.WhatsappInstance.InstanceStatus;
 import com.valedosol.kaju.feature.evolution.repository.WhatsappInstanceRepository;
@@ -23,9 +23,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Service
 @Slf4j
@@ -34,7 +38,6 @@ public class WhatsappService {
   private final WhatsappClient whatsappClient;
   private final WhatsappInstanceRepository instanceRepository;
   private final AccountService accountService;
-  private final AccountRepository accountRepository;
   private final TargetService targetService;
   private final UserContext userContext;
   private final WhatsappProperties whatsappProperties;
@@ -43,14 +46,12 @@ public class WhatsappService {
       WhatsappClient whatsappClient,
       WhatsappInstanceRepository instanceRepository,
       AccountService accountService,
-      AccountRepository accountRepository,
       TargetService targetService,
       UserContext userContext,
       WhatsappProperties whatsappProperties) {
     this.whatsappClient = whatsappClient;
     this.instanceRepository = instanceRepository;
     this.accountService = accountService;
-    this.accountRepository = accountRepository;
     this.targetService = targetService;
     this.userContext = userContext;
     this.whatsappProperties = whatsappProperties;
@@ -111,7 +112,7 @@ public class WhatsappService {
         throw new BusinessException("User not authenticated");
       }
 
-      Account account = accountRepository.findByEmail(currentUserEmail)
+      Account account = userContext.getCurrentAccount()
           .orElseThrow(() -> new ResourceNotFoundException("Account not found for email: " + currentUserEmail));
 
       return instanceRepository.findActiveInstanceByOwnerId(account.getId())
@@ -147,7 +148,7 @@ public class WhatsappService {
       throw new BusinessException("User not authenticated");
     }
 
-    Account account = accountRepository.findByEmail(currentUserEmail)
+    Account account = userContext.getCurrentAccount()
         .orElseThrow(() -> new ResourceNotFoundException("Account not found for email: " + currentUserEmail));
 
     // Generate unique instance ID for the user
@@ -238,7 +239,7 @@ public class WhatsappService {
       throw new BusinessException("User not authenticated");
     }
 
-    Account account = accountRepository.findByEmail(currentUserEmail)
+    Account account = userContext.getCurrentAccount()
         .orElseThrow(() -> new ResourceNotFoundException("Account not found for email: " + currentUserEmail));
 
     WhatsappInstance instance = instanceRepository.findByOwnerId(account.getId()).stream()
@@ -294,7 +295,7 @@ public class WhatsappService {
       throw new BusinessException("User not authenticated");
     }
 
-    Account account = accountRepository.findByEmail(currentUserEmail)
+    Account account = userContext.getCurrentAccount()
         .orElseThrow(() -> new ResourceNotFoundException("Account not found for email: " + currentUserEmail));
 
     WhatsappInstance instance = instanceRepository.findByOwnerId(account.getId()).stream()
@@ -411,7 +412,7 @@ public class WhatsappService {
       throw new BusinessException("User not authenticated");
     }
 
-    Account account = accountRepository.findByEmail(currentUserEmail)
+    Account account = userContext.getCurrentAccount()
         .orElseThrow(() -> new ResourceNotFoundException("Account not found for email: " + currentUserEmail));
 
     return instanceRepository.findActiveInstanceByOwnerId(account.getId())
@@ -476,19 +477,10 @@ public class WhatsappService {
    * 
    * @param recipients  List of recipient IDs
    * @param messageText The message content
-   * @return Map of recipient to success/failure status
    */
   @Transactional
   public void sendBulkTextMessage(List<String> recipients, String messageText) {
-    for (String recipient : recipients) {
-      try {
-        sendTextMessage(recipient, messageText);
-        log.info("Successfully sent message to {}", recipient);
-      } catch (Exception e) {
-        log.error("Failed to send message to {}: {}", recipient, e.getMessage());
-        // Continue with next recipient
-      }
-    }
+    sendBulk(recipients, recipient -> OutgoingMessage.builder().to(recipient).text(messageText).build());
   }
 
   /**
@@ -499,14 +491,45 @@ public class WhatsappService {
    */
   @Transactional
   public void sendBulkMediaMessage(List<String> recipients, MediaMessageRequest mediaRequest) {
+    sendBulk(recipients, recipient -> OutgoingMessage.builder().to(recipient).media(mediaRequest).build());
+  }
+
+  /**
+   * Groups the recipients by the instance that serves them and sends each group as one
+   * pipelined batch. A recipient without an instance or a failed send does not stop the
+   * others.
+   */
+  private void sendBulk(List<String> recipients, Function<String, OutgoingMessage> messageFor) {
+    Map<Long, WhatsappInstance> instances = new LinkedHashMap<>();
+    Map<Long, List<OutgoingMessage>> messagesByInstance = new LinkedHashMap<>();
     for (String recipient : recipients) {
       try {
-        sendMediaMessage(recipient, mediaRequest);
-        log.info("Successfully sent media to {}", recipient);
+        WhatsappInstance instance = selectAppropriateInstance(recipient);
+        instances.putIfAbsent(instance.getId(), instance);
+        messagesByInstance.computeIfAbsent(instance.getId(), id -> new ArrayList<>())
+            .add(messageFor.apply(recipient));
       } catch (Exception e) {
-        log.error("Failed to send media to {}: {}", recipient, e.getMessage());
+        log.error("Failed to send message to {}: {}", recipient, e.getMessage());
         // Continue with next recipient
       }
     }
+
+    messagesByInstance.forEach((id, messages) -> {
+      WhatsappInstance instance = instances.get(id);
+      instance.setLastUsedAt(Instant.now());
+      instanceRepository.save(instance);
+
+      List<MessageResponse> responses = whatsappClient.sendMany(instance.getToken(), instance.getInstanceId(),
+          messages);
+      for (int i = 0; i < messages.size(); i++) {
+        MessageResponse response = responses.get(i);
+        if (response != null && response.isSuccess()) {
+          log.info("Successfully sent message to {}", messages.get(i).getTo());
+        } else {
+          log.error("Failed to send message to {}: {}", messages.get(i).getTo(),
+              response != null ? response.getMessage() : "no response");
+        }
+      }
+    });
   }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.valedosol.kaju.feature.promotion.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "promotion.dispatch")
+@Data
+public class DispatchProperties {
+    private int workerThreads = 8;
+    private int queueCapacity = 1000;
+    private int maxConcurrencyPerInstance = 4;
+    private double ratePerSecond = 10.0;
+    private int burst = 10;
+}
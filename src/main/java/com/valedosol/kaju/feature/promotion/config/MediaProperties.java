@@ -0,0 +1,18 @@
+package com.valedosol.kaju.feature.promotion.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "promotion.media")
+@Data
+public class MediaProperties {
+    private boolean inlineEnabled = true;
+    private int maxBytes = 5 * 1024 * 1024;
+    // Hosts (and their subdomains) images may be downloaded from; empty allows any public host
+    private List<String> allowedHosts = new ArrayList<>();
+}
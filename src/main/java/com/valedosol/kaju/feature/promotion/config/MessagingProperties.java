@@ -0,0 +1,22 @@
+package com.valedosol.kaju.feature.promotion.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "promotion.messaging")
+@Data
+public class MessagingProperties {
+    // Providers in order of preference
+    private List<String> providers = new ArrayList<>(List.of("evolution", "whapi"));
+    private boolean failoverEnabled = true;
+    private double maxErrorRate = 0.5;
+    private long maxLatencyMs = 10000;
+    private int minSamples = 5;
+    private double smoothing = 0.2;
+    private long recoveryProbeSeconds = 30;
+}
@@ -0,0 +1,17 @@
+package com.valedosol.kaju.feature.promotion.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "promotion.outbox")
+@Data
+public class OutboxProperties {
+    private int batchSize = 50;
+    private long leaseSeconds = 120;
+    private int maxAttempts = 5;
+    private long retryDelaySeconds = 30;
+    private long maxRetryDelaySeconds = 900;
+    private long pollIntervalMs = 2000;
+}
@@ -0,0 +1,15 @@
+package com.valedosol.kaju.feature.promotion.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "promotion.scheduler")
+@Data
+public class SchedulerProperties {
+    // How often the in-memory schedule is reconciled with the database
+    private long reconcileIntervalMs = 600000;
+    // How far ahead each reconciliation loads due promotions; keep it above the interval
+    private long lookaheadMs = 1200000;
+}
@@ -0,0 +1,33 @@
+package com.valedosol.kaju.feature.promotion.controller;
+
+import com.valedosol.kaju.feature.promotion.service.MessagingRouter;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/messaging")
+@Tag(name = "Messaging", description = "Endpoints para monitoramento dos provedores de mensagens")
+public class MessagingMonitorController {
+
+    private final MessagingRouter messagingRouter;
+
+    public MessagingMonitorController(MessagingRouter messagingRouter) {
+        this.messagingRouter = messagingRouter;
+    }
+
+    @GetMapping("/health")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Saúde dos provedores", description = "Retorna a taxa de erro e a latência de cada provedor de mensagens")
+    public ResponseEntity<Map<String, Map<String, Object>>> getProviderHealth() {
+        return ResponseEntity.ok(messagingRouter.getHealth());
+    }
+}
@@ -1,26 +1,33 @@
 package com.valedosol.kaju.feature.promotion.controller;
 
+import com.valedosol.kaju.config.CurrentAccount;
 import com.valedosol.kaju.feature.auth.model.Account;
-import com.valedosol.kaju.feature.auth.repository.AccountRepository;
+import com.valedosol.kaju.feature.promotion.dto.EnqueueResult;
+import com.valedosol.kaju.feature.promotion.event.PromotionScheduleChangedEvent;
 import com.valedosol.kaju.feature.promotion.model.Promotion;
 import com.valedosol.kaju.feature.promotion.model.PromotionTarget;
+import com.valedosol.kaju.feature.promotion.model.SendOutbox;
 import com.valedosol.kaju.feature.promotion.repository.PromotionRepository;
 import com.valedosol.kaju.feature.promotion.repository.PromotionTargetRepository;
-import com.valedosol.kaju.feature.promotion.service.EvolutionService;
+import com.valedosol.kaju.feature.promotion.service.PromotionMediaService;
+import com.valedosol.kaju.feature.promotion.service.PromotionOutboxService;
+import com.valedosol.kaju.feature.promotion.service.SendQuotaService;
 import com.valedosol.kaju.feature.target.model.Target;
 import com.valedosol.kaju.feature.target.repository.TargetRepository;
 
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @RestController
@@ -29,28 +36,30 @@ public class PromotionController {
 
     private final PromotionRepository promotionRepository;
     private final PromotionTargetRepository promotionTargetRepository;
-    private final AccountRepository accountRepository;
     private final TargetRepository targetRepository;
-    private final EvolutionService whatsAppService;
+    private final PromotionOutboxService outboxService;
+    private final PromotionMediaService mediaService;
+    private final SendQuotaService quotaService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PromotionController(PromotionRepository promotionRepository,
                                PromotionTargetRepository promotionTargetRepository,
-                               AccountRepository accountRepository,
                                TargetRepository targetRepository,
-                               EvolutionService whatsAppService) {
+                               PromotionOutboxService outboxService,
+                               PromotionMediaService mediaService,
+                               SendQuotaService quotaService,
+                               ApplicationEventPublisher eventPublisher) {
         this.promotionRepository = promotionRepository;
         this.promotionTargetRepository = promotionTargetRepository;
-        this.accountRepository = accountRepository;
         this.targetRepository = targetRepository;
-        this.whatsAppService = whatsAppService;
+        this.outboxService = outboxService;
+        this.mediaService = mediaService;
+        this.quotaService = quotaService;
+        this.eventPublisher = eventPublisher;
     }
 
     @GetMapping
-    public ResponseEntity<List<Promotion>> getAllPromotions() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-
-        Optional<Account> accountOpt = accountRepository.findByEmail(email);
+    public ResponseEntity<List<Promotion>> getAllPromotions(@CurrentAccount Optional<Account> accountOpt) {
         if (!accountOpt.isPresent()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -61,11 +70,7 @@ public class PromotionController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getPromotionById(@PathVariable Long id) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-
-        Optional<Account> accountOpt = accountRepository.findByEmail(email);
+    public ResponseEntity<?> getPromotionById(@PathVariable Long id, @CurrentAccount Optional<Account> accountOpt) {
         if (!accountOpt.isPresent()) {
             return new ResponseEntity<>("Usuário não encontrado", HttpStatus.NOT_FOUND);
         }
@@ -85,11 +90,7 @@ public class PromotionController {
 
     @PostMapping
     @Transactional
-    public ResponseEntity<?> createPromotion(@RequestBody Map<String, Object> request) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-
-        Optional<Account> accountOpt = accountRepository.findByEmail(email);
+    public ResponseEntity<?> createPromotion(@RequestBody Map<String, Object> request, @CurrentAccount Optional<Account> accountOpt) {
         if (!accountOpt.isPresent()) {
             return new ResponseEntity<>("Usuário não encontrado", HttpStatus.NOT_FOUND);
         }
@@ -101,7 +102,7 @@ public class PromotionController {
             return new ResponseEntity<>("Sem assinatura ativa", HttpStatus.FORBIDDEN);
         }
 
-        if (account.getRemainingWeeklySends() <= 0) {
+        if (quotaService.getRemainingWeeklySends(account) <= 0) {
             return new ResponseEntity<>("Limite de envios semanais atingido", HttpStatus.FORBIDDEN);
         }
 
@@ -177,56 +178,24 @@ public class PromotionController {
                 if (targetOpt.isPresent()) {
                     // Create new PromotionTarget
                     PromotionTarget promotionTarget = new PromotionTarget();
-                    promotionTarget.setPromotion(savedPromotion);
                     promotionTarget.setTarget(targetOpt.get());
+                    savedPromotion.addPromotionTarget(promotionTarget);
 
                     // Save the PromotionTarget
                     promotionTargetRepository.save(promotionTarget);
                 }
             }
 
-            // Reload the promotion to get fresh state with targets
-            savedPromotion = promotionRepository.findById(savedPromotion.getId()).get();
-
             // If no scheduled time, send immediately
             if (savedPromotion.getScheduledTime() == null) {
                 savedPromotion.setScheduledTime(LocalDateTime.now());
-
-                int targetsProcessed = 0;
-                for (PromotionTarget target : savedPromotion.getPromotionTargets()) {
-                    if (account.getRemainingWeeklySends() > 0) {
-                        boolean sent = whatsAppService.sendPromotionToTarget(savedPromotion, target);
-
-                        if (sent) {
-                            target.setSent(true);
-                            target.setSentTime(LocalDateTime.now());
-                            promotionTargetRepository.save(target);
-
-                            account.setRemainingWeeklySends(account.getRemainingWeeklySends() - 1);
-                            accountRepository.save(account);
-
-                            targetsProcessed++;
-                        }
-                    } else {
-                        break;
-                    }
+                if (savedPromotion.isRecurring()) {
+                    savedPromotion.setNextRecurrence(savedPromotion.getScheduledTime());
                 }
-
-                // Se for recorrente e todos foram enviados, calcular próxima recorrência
-                if (savedPromotion.isRecurring() && savedPromotion.isFullySent()) {
-                    savedPromotion.calculateNextRecurrence();
-                    savedPromotion.setTotalOccurrences(savedPromotion.getTotalOccurrences() + 1);
-                }
-
                 promotionRepository.save(savedPromotion);
 
-                return new ResponseEntity<>(
-                        Map.of(
-                                "message", "Promoção enviada para " + targetsProcessed + " destinos",
-                                "promotion", savedPromotion
-                        ),
-                        HttpStatus.OK
-                );
+                // Os envios são feitos pela fila de envios depois do commit
+                return acceptedJob(outboxService.enqueue(savedPromotion), savedPromotion);
             } else {
                 // Validação da data de agendamento
                 LocalDateTime now = LocalDateTime.now();
@@ -235,6 +204,9 @@ public class PromotionController {
                             HttpStatus.BAD_REQUEST);
                 }
 
+                eventPublisher.publishEvent(new PromotionScheduleChangedEvent(savedPromotion.getId(),
+                        savedPromotion.nextSendTime()));
+
                 String message = savedPromotion.isRecurring() ?
                         "Promoção recorrente agendada com sucesso" :
                         "Promoção agendada com sucesso";
@@ -257,11 +229,7 @@ public class PromotionController {
 
     @PostMapping("/send-now")
     @Transactional
-    public ResponseEntity<?> sendPromotionNow(@RequestBody Map<String, Object> request) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-
-        Optional<Account> accountOpt = accountRepository.findByEmail(email);
+    public ResponseEntity<?> sendPromotionNow(@RequestBody Map<String, Object> request, @CurrentAccount Optional<Account> accountOpt) {
         if (!accountOpt.isPresent()) {
             return new ResponseEntity<>("Usuário não encontrado", HttpStatus.NOT_FOUND);
         }
@@ -273,7 +241,7 @@ public class PromotionController {
             return new ResponseEntity<>("Sem assinatura ativa", HttpStatus.FORBIDDEN);
         }
 
-        if (account.getRemainingWeeklySends() <= 0) {
+        if (quotaService.getRemainingWeeklySends(account) <= 0) {
             return new ResponseEntity<>("Limite de envios semanais atingido", HttpStatus.FORBIDDEN);
         }
 
@@ -364,42 +332,8 @@ public class PromotionController {
                 return new ResponseEntity<>("Nenhum destino válido fornecido", HttpStatus.BAD_REQUEST);
             }
 
-            // Enviar para todos os targets imediatamente
-            int targetsProcessed = 0;
-            for (PromotionTarget target : savedPromotion.getPromotionTargets()) {
-                if (account.getRemainingWeeklySends() > 0) {
-                    boolean sent = whatsAppService.sendPromotionToTarget(savedPromotion, target);
-
-                    if (sent) {
-                        target.setSent(true);
-                        target.setSentTime(LocalDateTime.now());
-                        promotionTargetRepository.save(target);
-
-                        account.setRemainingWeeklySends(account.getRemainingWeeklySends() - 1);
-                        accountRepository.save(account);
-
-                        targetsProcessed++;
-                    }
-                } else {
-                    break;
-                }
-            }
-
-            // Se for recorrente e todos foram enviados, calcular próxima recorrência
-            if (savedPromotion.isRecurring() && savedPromotion.isFullySent()) {
-                savedPromotion.calculateNextRecurrence();
-                savedPromotion.setTotalOccurrences(savedPromotion.getTotalOccurrences() + 1);
-            }
-
-            promotionRepository.save(savedPromotion);
-
-            return new ResponseEntity<>(
-                    Map.of(
-                            "message", "Promoção enviada para " + targetsProcessed + " destinos",
-                            "promotion", savedPromotion
-                    ),
-                    HttpStatus.OK
-            );
+            // Enfileirar o envio para todos os targets; os envios são feitos pela fila depois do commit
+            return acceptedJob(outboxService.enqueue(savedPromotion), savedPromotion);
 
         } catch (Exception e) {
             return new ResponseEntity<>("Erro ao processar promoção: " + e.getMessage(),
@@ -407,13 +341,27 @@ public class PromotionController {
         }
     }
 
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getSendJob(@PathVariable String jobId, @CurrentAccount Optional<Account> accountOpt) {
+        if (!accountOpt.isPresent()) {
+            return new ResponseEntity<>("Usuário não encontrado", HttpStatus.NOT_FOUND);
+        }
+
+        List<SendOutbox> entries = outboxService.findJobEntries(jobId);
+        if (entries.isEmpty()) {
+            return new ResponseEntity<>("Envio não encontrado", HttpStatus.NOT_FOUND);
+        }
+
+        if (!Objects.equals(entries.get(0).getPromotion().getCreator().getId(), accountOpt.get().getId())) {
+            return new ResponseEntity<>("Não autorizado", HttpStatus.FORBIDDEN);
+        }
+
+        return new ResponseEntity<>(outboxService.toJobResponse(jobId, entries), HttpStatus.OK);
+    }
+
     @PutMapping("/{id}")
     @Transactional
-    public ResponseEntity<?> updatePromotion(@PathVariable Long id, @RequestBody Map<String, Object> request) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-
-        Optional<Account> accountOpt = accountRepository.findByEmail(email);
+    public ResponseEntity<?> updatePromotion(@PathVariable Long id, @RequestBody Map<String, Object> request, @CurrentAccount Optional<Account> accountOpt) {
         if (!accountOpt.isPresent()) {
             return new ResponseEntity<>("Usuário não encontrado", HttpStatus.NOT_FOUND);
         }
@@ -447,7 +395,10 @@ public class PromotionController {
             }
 
             if (request.containsKey("imageUrl")) {
+                // A imagem pode ter sido trocada no mesmo endereço, então descarta o que está em cache
+                mediaService.evict(promotion.getImageUrl());
                 promotion.setImageUrl((String) request.get("imageUrl"));
+                mediaService.evict(promotion.getImageUrl());
             }
 
             // Atualizar agendamento
@@ -502,7 +453,8 @@ public class PromotionController {
             if (request.containsKey("targetIds")) {
                 List<Integer> targetIds = (List<Integer>) request.get("targetIds");
 
-                // Remover targets existentes
+                // Remover targets existentes e envios pendentes para eles
+                outboxService.discard(promotion.getId());
                 promotionTargetRepository.deleteAll(promotion.getPromotionTargets());
                 promotion.getPromotionTargets().clear();
 
@@ -529,6 +481,10 @@ public class PromotionController {
                 }
             }
 
+            // Reagenda com o novo horário; promoções sem envio agendado saem da agenda
+            eventPublisher.publishEvent(new PromotionScheduleChangedEvent(savedPromotion.getId(),
+                    savedPromotion.nextSendTime()));
+
             return new ResponseEntity<>(savedPromotion, HttpStatus.OK);
 
         } catch (Exception e) {
@@ -538,11 +494,8 @@ public class PromotionController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deletePromotion(@PathVariable Long id) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-
-        Optional<Account> accountOpt = accountRepository.findByEmail(email);
+    @Transactional
+    public ResponseEntity<?> deletePromotion(@PathVariable Long id, @CurrentAccount Optional<Account> accountOpt) {
         if (!accountOpt.isPresent()) {
             return new ResponseEntity<>("Usuário não encontrado", HttpStatus.NOT_FOUND);
         }
@@ -565,16 +518,14 @@ public class PromotionController {
                     HttpStatus.BAD_REQUEST);
         }
 
+        outboxService.discard(promotion.getId());
         promotionRepository.delete(promotion);
+        eventPublisher.publishEvent(new PromotionScheduleChangedEvent(promotion.getId(), null));
         return new ResponseEntity<>("Promoção excluída com sucesso", HttpStatus.OK);
     }
 
     @GetMapping("/recurring")
-    public ResponseEntity<List<Promotion>> getRecurringPromotions() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-
-        Optional<Account> accountOpt = accountRepository.findByEmail(email);
+    public ResponseEntity<List<Promotion>> getRecurringPromotions(@CurrentAccount Optional<Account> accountOpt) {
         if (!accountOpt.isPresent()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -583,4 +534,20 @@ public class PromotionController {
         List<Promotion> promotions = promotionRepository.findByCreatorIdAndRecurringTrue(account.getId());
         return new ResponseEntity<>(promotions, HttpStatus.OK);
     }
-}
\ No newline at end of file
+
+    // Responde 202 com o ID do lote para acompanhamento em /api/promotions/jobs/{jobId}
+    private ResponseEntity<?> acceptedJob(EnqueueResult result, Promotion promotion) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", "Promoção enfileirada para envio a " + result.getEnqueued() + " destinos");
+        body.put("jobId", result.getJobId());
+        body.put("promotion", promotion);
+
+        if (result.getJobId() == null) {
+            return new ResponseEntity<>(body, HttpStatus.ACCEPTED);
+        }
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/promotions/jobs/" + result.getJobId()))
+                .body(body);
+    }
+}
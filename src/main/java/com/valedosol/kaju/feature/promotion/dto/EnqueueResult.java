@@ -0,0 +1,11 @@
+package com.valedosol.kaju.feature.promotion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class EnqueueResult {
+    private String jobId; // null when nothing was enqueued
+    private int enqueued;
+}
@@ -0,0 +1,11 @@
+package com.valedosol.kaju.feature.promotion.dto;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Map;
+
+/**
+ * A promotion rendered for one messaging provider; only the recipient is added per target
+ */
+public record PreparedPromotion(String endpoint, Map<String, Object> payload, HttpHeaders headers) {
+}
@@ -0,0 +1,12 @@
+package com.valedosol.kaju.feature.promotion.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a promotion's id and the time its next send is due
+ */
+public interface PromotionDueTime {
+    Long getId();
+
+    LocalDateTime getDueAt();
+}
@@ -0,0 +1,8 @@
+package com.valedosol.kaju.feature.promotion.dto;
+
+/**
+ * A promotion image ready to be sent: either the inlined base64 content or, when
+ * the image could not be fetched, the original URL for the provider to download
+ */
+public record PromotionMedia(String media, String mimetype, String fileName, boolean inline) {
+}
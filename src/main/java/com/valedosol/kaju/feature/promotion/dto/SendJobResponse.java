@@ -0,0 +1,61 @@
+package com.valedosol.kaju.feature.promotion.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@Schema(description = "Progresso de um lote de envios de promoção")
+public class SendJobResponse {
+    @Schema(description = "ID do lote de envios", example = "3f2b1c9e-8d4a-4f7e-9a61-2c5d7e8f9a10")
+    private String jobId;
+
+    @Schema(description = "ID da promoção", example = "1")
+    private Long promotionId;
+
+    @Schema(description = "Situação do lote", example = "IN_PROGRESS",
+            allowableValues = { "IN_PROGRESS", "COMPLETED", "COMPLETED_WITH_FAILURES" })
+    private String status;
+
+    @Schema(description = "Total de destinos do lote", example = "50")
+    private int total;
+
+    @Schema(description = "Destinos já enviados", example = "42")
+    private int sent;
+
+    @Schema(description = "Destinos com falha definitiva", example = "1")
+    private int failed;
+
+    @Schema(description = "Destinos aguardando envio", example = "7")
+    private int pending;
+
+    @Schema(description = "Situação de cada destino")
+    private List<TargetStatus> targets;
+
+    @Data
+    @Builder
+    public static class TargetStatus {
+        @Schema(description = "ID do alvo", example = "1")
+        private Long targetId;
+
+        @Schema(description = "Nome do alvo", example = "Grupo do Kaju")
+        private String targetName;
+
+        @Schema(description = "Situação do envio", example = "SENT",
+                allowableValues = { "PENDING", "IN_FLIGHT", "SENT", "FAILED" })
+        private String status;
+
+        @Schema(description = "Tentativas de envio realizadas", example = "1")
+        private int attempts;
+
+        @Schema(description = "Data/hora do envio")
+        private LocalDateTime sentAt;
+
+        @Schema(description = "Último erro de envio")
+        private String lastError;
+    }
+}
@@ -0,0 +1,10 @@
+package com.valedosol.kaju.feature.promotion.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when the next send time of a promotion changes.
+ * A null {@code dueAt} means the promotion no longer has anything scheduled.
+ */
+public record PromotionScheduleChangedEvent(Long promotionId, LocalDateTime dueAt) {
+}
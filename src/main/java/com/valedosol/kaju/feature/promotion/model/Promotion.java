@@ -3,6 +3,7 @@ package com.valedosol.kaju.feature.promotion.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -28,6 +29,7 @@ public class Promotion {
     private Account creator;
 
     @OneToMany(mappedBy = "promotion", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @JsonManagedReference
     private List<PromotionTarget> promotionTargets = new ArrayList<>();
 
@@ -97,6 +99,14 @@ public class Promotion {
         return promotionTargets.stream().anyMatch(PromotionTarget::isSent);
     }
 
+    // Momento do próximo envio: a próxima recorrência ou, se não for recorrente, o agendamento
+    public LocalDateTime nextSendTime() {
+        if (recurring) {
+            return nextRecurrence != null ? nextRecurrence : scheduledTime;
+        }
+        return scheduledTime;
+    }
+
     // Método para calcular a próxima recorrência
     public void calculateNextRecurrence() {
         if (!recurring) return;
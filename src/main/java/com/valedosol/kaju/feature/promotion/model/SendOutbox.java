@@ -0,0 +1,112 @@
+package com.valedosol.kaju.feature.promotion.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * One outbound send of a promotion to a target, for a given occurrence of the promotion.
+ * Rows are claimed by the outbox drainer with a lease, so a crashed node's work is picked
+ * up again once its lease expires.
+ */
+@Entity
+@NamedEntityGraph(name = SendOutbox.DISPATCH_GRAPH, attributeNodes = {
+        @NamedAttributeNode(value = "promotion", subgraph = "promotion"),
+        @NamedAttributeNode(value = "promotionTarget", subgraph = "promotionTarget")
+}, subgraphs = {
+        @NamedSubgraph(name = "promotion", attributeNodes = @NamedAttributeNode(value = "creator", subgraph = "creator")),
+        @NamedSubgraph(name = "creator", attributeNodes = @NamedAttributeNode("roles")),
+        @NamedSubgraph(name = "promotionTarget", attributeNodes = @NamedAttributeNode("target"))
+})
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@Table(name = "send_outbox",
+        uniqueConstraints = @UniqueConstraint(name = "uk_outbox_target_occurrence",
+                columnNames = { "promotion_target_id", "occurrence" }),
+        indexes = {
+                @Index(name = "idx_outbox_status_next_attempt", columnList = "status, nextAttemptAt"),
+                @Index(name = "idx_outbox_job", columnList = "jobId")
+        })
+public class SendOutbox {
+    // Everything the drainer reads: the promotion to render, its creator's quota and the target's identifier
+    public static final String DISPATCH_GRAPH = "SendOutbox.dispatch";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "promotion_id", nullable = false)
+    @ToString.Exclude
+    private Promotion promotion;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "promotion_target_id", nullable = false)
+    @ToString.Exclude
+    private PromotionTarget promotionTarget;
+
+    @Column(nullable = false)
+    private Integer occurrence;
+
+    // Identifica o lote de envios criado por um mesmo enfileiramento
+    @Column(nullable = false, length = 36)
+    private String jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    private int attempts = 0;
+
+    private String leaseOwner;
+    private LocalDateTime leaseUntil;
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    public SendOutbox(Promotion promotion, PromotionTarget promotionTarget, Integer occurrence, String jobId) {
+        this.promotion = promotion;
+        this.promotionTarget = promotionTarget;
+        this.occurrence = occurrence;
+        this.jobId = jobId;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = this.createdAt;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SendOutbox that = (SendOutbox) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    public enum OutboxStatus {
+        PENDING,
+        IN_FLIGHT,
+        SENT,
+        FAILED
+    }
+}
@@ -0,0 +1,21 @@
+package com.valedosol.kaju.feature.promotion.model;
+
+/**
+ * Result of a single outbound send attempt
+ */
+public enum SendOutcome {
+    /** The provider accepted the message */
+    SENT,
+    /** Transient failure (timeout, 5xx, 429); worth retrying later */
+    RETRIABLE,
+    /** The provider could not be reached (refused, unknown host, connect timeout), so nothing was sent */
+    UNREACHABLE,
+    /** The provider rejected the message (4xx); retrying will not help */
+    REJECTED,
+    /** Not attempted because the provider's circuit is open; does not count as an attempt */
+    DEFERRED;
+
+    public boolean isSent() {
+        return this == SENT;
+    }
+}
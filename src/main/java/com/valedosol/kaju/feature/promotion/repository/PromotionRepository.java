@@ -1,13 +1,20 @@
 package com.valedosol.kaju.feature.promotion.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import com.valedosol.kaju.feature.promotion.dto.PromotionDueTime;
 import com.valedosol.kaju.feature.promotion.model.Promotion;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface PromotionRepository extends JpaRepository<Promotion, Long> {
     List<Promotion> findByCreatorId(Long creatorId);
@@ -21,11 +28,25 @@ public interface PromotionRepository extends JpaRepository<Promotion, Long> {
     // Busca promoções que deveriam ter sido enviadas até agora
     List<Promotion> findByScheduledTimeBefore(LocalDateTime endTime);
 
-    // Busca promoções recorrentes com próxima recorrência antes de determinado momento
-    List<Promotion> findByRecurringTrueAndNextRecurrenceBefore(LocalDateTime dateTime);
-
-
-    @Query("SELECT DISTINCT p FROM Promotion p LEFT JOIN FETCH p.promotionTargets pt " +
-            "WHERE p.scheduledTime <= :endTime AND (SELECT COUNT(pt2) FROM PromotionTarget pt2 WHERE pt2.promotion = p AND pt2.sent = false) > 0")
-    List<Promotion> findByScheduledTimeBeforeAndNotFullySent(@Param("endTime") LocalDateTime endTime);
+    // Promoções agendadas (não recorrentes) que ainda têm destinos a enfileirar até o instante informado.
+    // Destinos que já passaram pela fila nesta ocorrência (inclusive os que falharam de vez) não contam,
+    // senão uma promoção com todos os envios em FAILED seria reagendada para sempre
+    @Query("SELECT p.id AS id, p.scheduledTime AS dueAt FROM Promotion p " +
+            "WHERE p.recurring = false AND p.scheduledTime <= :until " +
+            "AND EXISTS (SELECT pt FROM PromotionTarget pt WHERE pt.promotion = p AND pt.sent = false " +
+            "AND NOT EXISTS (SELECT 1 FROM SendOutbox o WHERE o.promotionTarget = pt AND o.occurrence = p.totalOccurrences))")
+    List<PromotionDueTime> findScheduledDueBefore(@Param("until") LocalDateTime until);
+
+    // Promoções recorrentes cuja próxima ocorrência vence até o instante informado e ainda tem destinos a enfileirar
+    @Query("SELECT p.id AS id, p.nextRecurrence AS dueAt FROM Promotion p " +
+            "WHERE p.recurring = true AND p.nextRecurrence <= :until " +
+            "AND EXISTS (SELECT pt FROM PromotionTarget pt WHERE pt.promotion = p AND pt.sent = false " +
+            "AND NOT EXISTS (SELECT 1 FROM SendOutbox o WHERE o.promotionTarget = pt AND o.occurrence = p.totalOccurrences))")
+    List<PromotionDueTime> findRecurringDueBefore(@Param("until") LocalDateTime until);
+
+    // Trava a promoção para este nó; se outro nó já a está processando, retorna vazio em vez de esperar
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = SendOutboxRepository.SKIP_LOCKED))
+    @Query("SELECT p FROM Promotion p WHERE p.id = :id")
+    Optional<Promotion> findByIdForUpdateSkipLocked(@Param("id") Long id);
 }
\ No newline at end of file
@@ -1,9 +1,15 @@
 package com.valedosol.kaju.feature.promotion.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.valedosol.kaju.feature.promotion.model.PromotionTarget;
+import com.valedosol.kaju.feature.promotion.model.SendOutbox;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface PromotionTargetRepository extends JpaRepository<PromotionTarget, Long> {
@@ -13,4 +19,26 @@ public interface PromotionTargetRepository extends JpaRepository<PromotionTarget
 
   List<PromotionTarget> findByPromotionIdAndSent(Long promotionId, boolean sent);
 
+  // Destinos ainda não enviados nem enfileirados nesta ocorrência; é o que o próximo enqueue vai inserir
+  @Query("SELECT COUNT(pt) FROM PromotionTarget pt WHERE pt.promotion.id = :promotionId AND pt.sent = false " +
+          "AND NOT EXISTS (SELECT 1 FROM SendOutbox o WHERE o.promotionTarget = pt AND o.occurrence = :occurrence)")
+  long countEnqueueable(@Param("promotionId") Long promotionId, @Param("occurrence") Integer occurrence);
+
+  // Destinos ainda sem desfecho nesta ocorrência: nem enviados nem com envio concluído (SENT ou FAILED) no outbox
+  @Query("SELECT COUNT(pt) FROM PromotionTarget pt WHERE pt.promotion.id = :promotionId AND pt.sent = false " +
+          "AND NOT EXISTS (SELECT 1 FROM SendOutbox o WHERE o.promotionTarget = pt AND o.occurrence = :occurrence " +
+          "AND o.status IN :settled)")
+  long countUnsettled(@Param("promotionId") Long promotionId, @Param("occurrence") Integer occurrence,
+                      @Param("settled") Collection<SendOutbox.OutboxStatus> settled);
+
+  // Marca vários destinos como enviados em um único UPDATE
+  @Modifying
+  @Query("UPDATE PromotionTarget pt SET pt.sent = true, pt.sentTime = :sentTime WHERE pt.id IN :ids")
+  int markSent(@Param("ids") Collection<Long> ids, @Param("sentTime") LocalDateTime sentTime);
+
+  // Reinicia todos os destinos da promoção para a próxima recorrência
+  @Modifying
+  @Query("UPDATE PromotionTarget pt SET pt.sent = false, pt.sentTime = null WHERE pt.promotion.id = :promotionId")
+  int resetSentByPromotionId(@Param("promotionId") Long promotionId);
+
 }
\ No newline at end of file
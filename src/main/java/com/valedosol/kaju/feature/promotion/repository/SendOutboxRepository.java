@@ -0,0 +1,87 @@
+package com.valedosol.kaju.feature.promotion.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.valedosol.kaju.feature.promotion.model.SendOutbox;
+import com.valedosol.kaju.feature.promotion.model.SendOutbox.OutboxStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SendOutboxRepository extends JpaRepository<SendOutbox, Long> {
+
+    // LockOptions.SKIP_LOCKED; rendered as FOR UPDATE SKIP LOCKED where the database supports it
+    String SKIP_LOCKED = "-2";
+
+    // Linhas prontas para envio ou com lease expirado (nó que caiu no meio do envio).
+    // SKIP LOCKED faz cada nó pegar um lote diferente em vez de esperar pelo lock dos outros.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = SKIP_LOCKED))
+    @Query("SELECT o FROM SendOutbox o " +
+            "WHERE (o.status = :pending AND o.nextAttemptAt <= :now) " +
+            "OR (o.status = :inFlight AND o.leaseUntil < :now) ORDER BY o.id")
+    List<SendOutbox> findClaimable(@Param("pending") OutboxStatus pending,
+                                   @Param("inFlight") OutboxStatus inFlight,
+                                   @Param("now") LocalDateTime now,
+                                   Pageable pageable);
+
+    @EntityGraph(SendOutbox.DISPATCH_GRAPH)
+    @Query("SELECT o FROM SendOutbox o WHERE o.id IN :ids ORDER BY o.id")
+    List<SendOutbox> findAllWithTargetsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o FROM SendOutbox o JOIN FETCH o.promotion p JOIN FETCH o.promotionTarget pt JOIN FETCH pt.target " +
+            "WHERE o.jobId = :jobId ORDER BY o.id")
+    List<SendOutbox> findByJobIdWithTargets(@Param("jobId") String jobId);
+
+    // Enfileira em um único INSERT ... SELECT os destinos ainda não enviados nem enfileirados nesta ocorrência
+    @Modifying
+    @Query(value = "INSERT INTO send_outbox (promotion_id, promotion_target_id, occurrence, job_id, status, attempts, " +
+            "created_at, next_attempt_at) " +
+            "SELECT pt.promotion_id, pt.id, :occurrence, :jobId, 'PENDING', 0, :now, :now FROM promotion_target pt " +
+            "WHERE pt.promotion_id = :promotionId AND pt.sent = false AND NOT EXISTS (" +
+            "SELECT 1 FROM send_outbox o WHERE o.promotion_target_id = pt.id AND o.occurrence = :occurrence) " +
+            "ORDER BY pt.id LIMIT :limit", nativeQuery = true)
+    int enqueueUnsentTargets(@Param("promotionId") Long promotionId,
+                             @Param("occurrence") Integer occurrence,
+                             @Param("jobId") String jobId,
+                             @Param("now") LocalDateTime now,
+                             @Param("limit") long limit);
+
+    // Reivindica o lote em um único UPDATE; limpa o contexto para que a releitura traga os valores novos
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SendOutbox o SET o.status = :inFlight, o.leaseOwner = :leaseOwner, o.leaseUntil = :leaseUntil, " +
+            "o.attempts = o.attempts + 1 WHERE o.id IN :ids")
+    int markInFlight(@Param("ids") Collection<Long> ids,
+                     @Param("inFlight") OutboxStatus inFlight,
+                     @Param("leaseOwner") String leaseOwner,
+                     @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Conclui vários envios bem-sucedidos em um único UPDATE
+    @Modifying
+    @Query("UPDATE SendOutbox o SET o.status = :sent, o.sentAt = :sentAt, o.leaseOwner = null, o.leaseUntil = null " +
+            "WHERE o.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids,
+                 @Param("sent") OutboxStatus sent,
+                 @Param("sentAt") LocalDateTime sentAt);
+
+    // Envios ainda não concluídos da promoção, agrupados por criador; a cota reservada para eles é devolvida ao descartar
+    @Query("SELECT p.creator.id, COUNT(o) FROM SendOutbox o JOIN o.promotion p " +
+            "WHERE p.id = :promotionId AND o.status IN :statuses GROUP BY p.creator.id")
+    List<Object[]> countByCreatorForPromotion(@Param("promotionId") Long promotionId,
+                                             @Param("statuses") Collection<OutboxStatus> statuses);
+
+    @Modifying
+    @Query("DELETE FROM SendOutbox o WHERE o.promotion.id = :promotionId")
+    void deleteByPromotionId(@Param("promotionId") Long promotionId);
+}
@@ -0,0 +1,168 @@
+package com.valedosol.kaju.feature.promotion.service;
+
+import com.valedosol.kaju.common.concurrent.CircuitBreaker;
+import com.valedosol.kaju.config.http.CircuitBreakerRegistry;
+import com.valedosol.kaju.feature.promotion.dto.PreparedPromotion;
+import com.valedosol.kaju.feature.promotion.model.Promotion;
+import com.valedosol.kaju.feature.promotion.model.PromotionTarget;
+import com.valedosol.kaju.feature.promotion.model.SendOutcome;
+
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Common plumbing of the REST-based providers: circuit breaking, outcome
+ * classification, caption rendering and batch sending.
+ */
+public abstract class AbstractHttpMessagingProvider implements MessagingProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractHttpMessagingProvider.class);
+
+    protected final RestTemplate restTemplate;
+    private final PromotionDispatcher dispatcher;
+    private final CircuitBreakerRegistry circuitBreakers;
+
+    protected AbstractHttpMessagingProvider(RestTemplate restTemplate, PromotionDispatcher dispatcher,
+                                            CircuitBreakerRegistry circuitBreakers) {
+        this.restTemplate = restTemplate;
+        this.dispatcher = dispatcher;
+        this.circuitBreakers = circuitBreakers;
+    }
+
+    @Override
+    public Duration getDeferral() {
+        return circuitBreakers.get(getName(), getInstance()).getRemainingOpenTime();
+    }
+
+    /**
+     * Sends a promotion to a specific target
+     *
+     * @param promotion The promotion to send
+     * @param promotionTarget The target to send the promotion to
+     * @return true if the message was sent successfully, false otherwise
+     */
+    public boolean sendPromotionToTarget(Promotion promotion, PromotionTarget promotionTarget) {
+        return sendPrepared(preparePromotion(promotion), promotionTarget).isSent();
+    }
+
+    /**
+     * Sends a batch of promotions to multiple targets.
+     * The promotion is rendered once and the sends are paced by the dispatcher's
+     * rate limiter and per-instance concurrency limit.
+     *
+     * @param promotion The promotion to send
+     * @param targets List of promotion targets
+     * @return The number of messages successfully sent
+     */
+    public int sendPromotionToBatch(Promotion promotion, Iterable<PromotionTarget> targets) {
+        PreparedPromotion prepared = preparePromotion(promotion);
+        List<PromotionTarget> targetList = new ArrayList<>();
+        targets.forEach(targetList::add);
+
+        List<SendOutcome> results = dispatcher.dispatch(getName() + ":" + getInstance(), targetList,
+                target -> sendPrepared(prepared, target)).join();
+        return (int) results.stream().filter(SendOutcome::isSent).count();
+    }
+
+    /**
+     * Posts a message through the instance's circuit breaker and classifies the result.
+     * Client errors mean the provider is healthy but refused this message, so only
+     * timeouts, server errors and throttling count against the breaker. A connection that
+     * could not even be opened is reported as UNREACHABLE, since the message surely did not
+     * leave, unlike a timeout or server error after the request was written.
+     */
+    protected SendOutcome post(String endpoint, HttpEntity<Map<String, Object>> request, String targetIdentifier) {
+        CircuitBreaker breaker = circuitBreakers.get(getName(), getInstance());
+        if (!breaker.tryAcquirePermission()) {
+            logger.debug("Circuit {} is open, deferring message to {}", breaker.getName(), targetIdentifier);
+            return SendOutcome.DEFERRED;
+        }
+
+        try {
+            ResponseEntity<Map> response = restTemplate.postForEntity(endpoint, request, Map.class);
+
+            if (response.getStatusCode().is2xxSuccessful()) {
+                breaker.onSuccess();
+                logger.info("Successfully sent message to {} via {}", targetIdentifier, getName());
+                return SendOutcome.SENT;
+            }
+            breaker.onFailure();
+            logger.error("Failed to send message via {}: API returned status code {}",
+                    getName(), response.getStatusCode());
+            return SendOutcome.RETRIABLE;
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode().value() == 429 || e.getStatusCode().value() == 408) {
+                breaker.onFailure();
+                logger.warn("{} throttled message to {}: {}", getName(), targetIdentifier, e.getStatusCode());
+                return SendOutcome.RETRIABLE;
+            }
+            breaker.onSuccess();
+            logger.error("{} rejected message to {}: {}", getName(), targetIdentifier, e.getMessage());
+            return SendOutcome.REJECTED;
+        } catch (ResourceAccessException e) {
+            breaker.onFailure();
+            if (isConnectFailure(e)) {
+                logger.error("Could not connect to {} to send message to {}: {}", getName(), targetIdentifier,
+                        e.getMessage());
+                return SendOutcome.UNREACHABLE;
+            }
+            logger.error("Error sending WhatsApp message via {}: {}", getName(), e.getMessage());
+            return SendOutcome.RETRIABLE;
+        } catch (RestClientException e) {
+            breaker.onFailure();
+            logger.error("Error sending WhatsApp message via {}: {}", getName(), e.getMessage());
+            return SendOutcome.RETRIABLE;
+        } catch (Exception e) {
+            breaker.onFailure();
+            logger.error("Unexpected error sending message via {}: {}", getName(), e.getMessage());
+            return SendOutcome.RETRIABLE;
+        }
+    }
+
+    private static boolean isConnectFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof ConnectTimeoutException
+                    || cause instanceof UnknownHostException || cause instanceof NoRouteToHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates a formatted message caption from the promotion details
+     *
+     * @param promotion The promotion to create a caption for
+     * @return The formatted message caption
+     */
+    protected String createMessageCaption(Promotion promotion) {
+        StringBuilder caption = new StringBuilder();
+
+        // Add title in bold if available
+        if (promotion.getTitle() != null && !promotion.getTitle().isEmpty()) {
+            caption.append("*").append(promotion.getTitle()).append("*\n\n");
+        }
+
+        // Add description if available
+        if (promotion.getDescription() != null && !promotion.getDescription().isEmpty()) {
+            caption.append(promotion.getDescription());
+        }
+
+        return caption.toString();
+    }
+}
@@ -6,23 +6,25 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import com.valedosol.kaju.config.http.CircuitBreakerRegistry;
+import com.valedosol.kaju.feature.promotion.dto.PreparedPromotion;
+import com.valedosol.kaju.feature.promotion.dto.PromotionMedia;
 import com.valedosol.kaju.feature.promotion.model.Promotion;
 import com.valedosol.kaju.feature.promotion.model.PromotionTarget;
+import com.valedosol.kaju.feature.promotion.model.SendOutcome;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Service
-public class EvolutionService {
+public class EvolutionService extends AbstractHttpMessagingProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(EvolutionService.class);
 
-    private final RestTemplate restTemplate;
+    private final PromotionMediaService mediaService;
 
     @Value("${evolution.api.url}")
     private String evolutionApiUrl;
@@ -33,137 +35,104 @@ public class EvolutionService {
     @Value("${evolution.instance}")
     private String instance;
 
-    public EvolutionService() {
-        this.restTemplate = new RestTemplate();
+    public EvolutionService(RestTemplate restTemplate, PromotionDispatcher dispatcher,
+                            PromotionMediaService mediaService, CircuitBreakerRegistry circuitBreakers) {
+        super(restTemplate, dispatcher, circuitBreakers);
+        this.mediaService = mediaService;
+    }
+
+    @Override
+    public String getName() {
+        return "evolution";
     }
 
     /**
-     * Sends a promotion to a specific target
-     *
-     * @param promotion The promotion to send
-     * @param promotionTarget The target to send the promotion to
-     * @return true if the message was sent successfully, false otherwise
+     * Name of the Evolution instance messages are sent through
      */
-    public boolean sendPromotionToTarget(Promotion promotion, PromotionTarget promotionTarget) {
-        try {
-            String targetIdentifier = formatPhoneNumber(promotionTarget.getTarget().getIdentifier());
-
-            // Check if promotion has an image
-            if (promotion.getImageUrl() != null && !promotion.getImageUrl().isEmpty()) {
-                return sendMediaMessage(targetIdentifier, promotion);
-            } else {
-                // Send text-only message
-                String message = createMessageCaption(promotion);
-                return sendTextMessage(targetIdentifier, message);
-            }
-        } catch (Exception e) {
-            logger.error("Unexpected error sending promotion: {}", e.getMessage());
-            return false;
-        }
+    @Override
+    public String getInstance() {
+        return instance;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return evolutionApiUrl != null && !evolutionApiUrl.isBlank();
     }
 
     /**
-     * Sends a media message with the promotion details and image
+     * Renders the promotion into the request that is sent to every target.
+     * Only the recipient number changes between targets, so the caption, payload,
+     * headers and endpoint are built once per promotion.
      *
-     * @param targetIdentifier The formatted phone number
-     * @param promotion The promotion to send
-     * @return true if successful, false otherwise
+     * @param promotion The promotion to render
+     * @return The rendered request, safe to share between threads
      */
-    private boolean sendMediaMessage(String targetIdentifier, Promotion promotion) {
-        try {
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("number", targetIdentifier);
+    @Override
+    public PreparedPromotion preparePromotion(Promotion promotion) {
+        Map<String, Object> payload = new HashMap<>();
+        String endpoint;
+
+        // Check if promotion has an image
+        if (promotion.getImageUrl() != null && !promotion.getImageUrl().isEmpty()) {
+            // The image is fetched once and reused from the media cache for every target
+            PromotionMedia media = mediaService.resolve(promotion.getImageUrl());
             payload.put("mediatype", "image");
-            payload.put("mimetype", "image/jpeg"); // Adjust based on your image types
+            payload.put("mimetype", media.mimetype());
             payload.put("caption", createMessageCaption(promotion));
-            payload.put("media", promotion.getImageUrl());
-            payload.put("fileName", "promotion.jpg"); // Provide a generic filename
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("apikey", evolutionApiKey);
-
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
-
+            payload.put("media", media.media());
+            payload.put("fileName", media.fileName());
             // Using the sendMedia endpoint from Evolution API
-            String endpoint = evolutionApiUrl + "/message/sendMedia/" + instance;
-            logger.debug("Sending promotion to {}: {}", targetIdentifier, payload);
-
-            ResponseEntity<Map> response = restTemplate.postForEntity(endpoint, request, Map.class);
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                logger.info("Successfully sent promotion media to target {}", targetIdentifier);
-                return true;
-            } else {
-                logger.error("Failed to send promotion media: API returned status code {}", 
-                        response.getStatusCode());
-                return false;
-            }
-
-        } catch (RestClientException e) {
-            logger.error("Error sending WhatsApp media message: {}", e.getMessage());
-            return false;
+            endpoint = evolutionApiUrl + "/message/sendMedia/" + instance;
+        } else {
+            payload.put("text", createMessageCaption(promotion));
+            // Using the sendText endpoint from Evolution API
+            endpoint = evolutionApiUrl + "/message/sendText/" + instance;
         }
+
+        return new PreparedPromotion(endpoint, Map.copyOf(payload), jsonHeaders());
     }
 
     /**
-     * Sends a text-only message to a target
+     * Sends an already rendered promotion to a specific target
      *
-     * @param targetIdentifier The target phone number
-     * @param message The text message to send
-     * @return true if successful, false otherwise
+     * @param prepared The rendered promotion
+     * @param promotionTarget The target to send the promotion to
+     * @return The outcome of the send; DEFERRED when the instance's circuit is open
      */
-    public boolean sendTextMessage(String targetIdentifier, String message) {
-        try {
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("number", targetIdentifier);
-            payload.put("text", message);
+    @Override
+    public SendOutcome sendPrepared(PreparedPromotion prepared, PromotionTarget promotionTarget) {
+        String targetIdentifier = formatPhoneNumber(promotionTarget.getTarget().getIdentifier());
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("apikey", evolutionApiKey);
+        Map<String, Object> payload = new HashMap<>(prepared.payload());
+        payload.put("number", targetIdentifier);
+        logger.debug("Sending promotion to {}: {}", targetIdentifier, payload);
 
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
-
-            // Using the sendText endpoint from Evolution API
-            String endpoint = evolutionApiUrl + "/message/sendText/" + instance;
-
-            ResponseEntity<Map> response = restTemplate.postForEntity(endpoint, request, Map.class);
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                logger.info("Successfully sent text message to {}", targetIdentifier);
-                return true;
-            } else {
-                logger.error("Failed to send text message: API returned status code {}", 
-                        response.getStatusCode());
-                return false;
-            }
-        } catch (Exception e) {
-            logger.error("Error sending text message: {}", e.getMessage());
-            return false;
-        }
+        return post(prepared.endpoint(), new HttpEntity<>(payload, prepared.headers()), targetIdentifier);
     }
 
     /**
-     * Creates a formatted message caption from the promotion details
+     * Sends a text-only message to a target
      *
-     * @param promotion The promotion to create a caption for
-     * @return The formatted message caption
+     * @param targetIdentifier The target phone number
+     * @param message The text message to send
+     * @return true if successful, false otherwise
      */
-    private String createMessageCaption(Promotion promotion) {
-        StringBuilder caption = new StringBuilder();
+    public boolean sendTextMessage(String targetIdentifier, String message) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("number", targetIdentifier);
+        payload.put("text", message);
 
-        // Add title in bold if available
-        if (promotion.getTitle() != null && !promotion.getTitle().isEmpty()) {
-            caption.append("*").append(promotion.getTitle()).append("*\n\n");
-        }
+        // Using the sendText endpoint from Evolution API
+        String endpoint = evolutionApiUrl + "/message/sendText/" + instance;
 
-        // Add description if available
-        if (promotion.getDescription() != null && !promotion.getDescription().isEmpty()) {
-            caption.append(promotion.getDescription());
-        }
+        return post(endpoint, new HttpEntity<>(payload, jsonHeaders()), targetIdentifier).isSent();
+    }
 
-        return caption.toString();
+    private HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("apikey", evolutionApiKey);
+        return HttpHeaders.readOnlyHttpHeaders(headers);
     }
 
     /**
@@ -185,32 +154,4 @@ public class EvolutionService {
         
         return formattedNumber;
     }
-
-    /**
-     * Sends a batch of promotions to multiple targets
-     *
-     * @param promotion The promotion to send
-     * @param targets List of promotion targets
-     * @return The number of messages successfully sent
-     */
-    public int sendPromotionToBatch(Promotion promotion, Iterable<PromotionTarget> targets) {
-        int successCount = 0;
-
-        for (PromotionTarget target : targets) {
-            if (sendPromotionToTarget(promotion, target)) {
-                successCount++;
-            }
-            
-            // Add a small delay between messages to avoid rate limiting
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.warn("Batch sending interrupted");
-                break;
-            }
-        }
-
-        return successCount;
-    }
-}
\ No newline at end of file
+}
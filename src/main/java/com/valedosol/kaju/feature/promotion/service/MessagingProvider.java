@@ -0,0 +1,46 @@
+package com.valedosol.kaju.feature.promotion.service;
+
+import com.valedosol.kaju.feature.promotion.dto.PreparedPromotion;
+import com.valedosol.kaju.feature.promotion.model.Promotion;
+import com.valedosol.kaju.feature.promotion.model.PromotionTarget;
+import com.valedosol.kaju.feature.promotion.model.SendOutcome;
+
+import java.time.Duration;
+
+/**
+ * A WhatsApp gateway promotions can be sent through
+ */
+public interface MessagingProvider {
+
+    /**
+     * Short provider name, as used in {@code promotion.messaging.providers}
+     */
+    String getName();
+
+    /**
+     * The instance (or phone) of the provider messages go out from
+     */
+    String getInstance();
+
+    /**
+     * Whether the provider is configured well enough to be used
+     */
+    boolean isEnabled();
+
+    /**
+     * Renders the promotion into the request shared by all of its targets
+     */
+    PreparedPromotion preparePromotion(Promotion promotion);
+
+    /**
+     * Sends an already rendered promotion to a specific target
+     */
+    SendOutcome sendPrepared(PreparedPromotion prepared, PromotionTarget promotionTarget);
+
+    /**
+     * How long sends should be held back because the provider's circuit is open
+     *
+     * @return Zero when messages can be sent now
+     */
+    Duration getDeferral();
+}
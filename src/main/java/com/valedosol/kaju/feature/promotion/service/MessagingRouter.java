@@ -0,0 +1,167 @@
+package com.valedosol.kaju.feature.promotion.service;
+
+import com.valedosol.kaju.feature.promotion.config.MessagingProperties;
+import com.valedosol.kaju.feature.promotion.dto.PreparedPromotion;
+import com.valedosol.kaju.feature.promotion.model.Promotion;
+import com.valedosol.kaju.feature.promotion.model.PromotionTarget;
+import com.valedosol.kaju.feature.promotion.model.SendOutcome;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes promotion sends to the configured messaging providers.
+ * <p>
+ * Providers are tried in the configured order, with unhealthy ones (error rate or
+ * latency above the thresholds) moved behind the healthy ones. When failover is
+ * enabled, a send is moved to the next provider only when it is certain the message did
+ * not leave: the circuit is open or the provider could not be connected to. Any other
+ * failure may have been delivered anyway, so it goes back to the outbox and is retried
+ * later instead of risking a duplicate through another provider; a rejection is final.
+ * <p>
+ * Each attempt runs within the dispatcher's limits of the provider it actually goes
+ * through, so failover traffic is throttled as traffic of the provider that carries it.
+ */
+@Service
+public class MessagingRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessagingRouter.class);
+
+    private final MessagingProperties properties;
+    private final PromotionDispatcher dispatcher;
+    private final List<MessagingProvider> providers;
+    private final Map<String, ProviderHealth> health = new LinkedHashMap<>();
+
+    public MessagingRouter(MessagingProperties properties, PromotionDispatcher dispatcher,
+                           List<MessagingProvider> availableProviders) {
+        this.properties = properties;
+        this.dispatcher = dispatcher;
+
+        Map<String, MessagingProvider> byName = new LinkedHashMap<>();
+        availableProviders.forEach(provider -> byName.put(provider.getName(), provider));
+
+        List<MessagingProvider> ordered = new ArrayList<>();
+        for (String name : properties.getProviders()) {
+            MessagingProvider provider = byName.get(name);
+            if (provider == null) {
+                logger.warn("Unknown messaging provider '{}' ignored", name);
+            } else if (!provider.isEnabled()) {
+                logger.warn("Messaging provider '{}' is not configured and will not be used", name);
+            } else {
+                ordered.add(provider);
+                health.put(name, new ProviderHealth(properties));
+            }
+        }
+        if (ordered.isEmpty()) {
+            throw new IllegalStateException("No messaging provider is enabled");
+        }
+        this.providers = List.copyOf(ordered);
+        logger.info("Messaging providers in order of preference: {}",
+                providers.stream().map(MessagingProvider::getName).toList());
+    }
+
+    /**
+     * Renders the promotion for the providers; each provider renders it at most once
+     */
+    public PreparedBatch prepare(Promotion promotion) {
+        return new PreparedBatch(promotion);
+    }
+
+    /**
+     * Sends a rendered promotion to a target, failing over between providers
+     * while no provider could be reached
+     *
+     * @return The outcome from the provider that handled it, RETRIABLE if no attempted
+     *         provider could be reached, or DEFERRED if none could be tried
+     */
+    public SendOutcome send(PreparedBatch batch, PromotionTarget promotionTarget) {
+        List<MessagingProvider> candidates = properties.isFailoverEnabled()
+                ? rankedProviders()
+                : List.of(providers.get(0));
+        SendOutcome outcome = SendOutcome.DEFERRED;
+
+        for (MessagingProvider provider : candidates) {
+            if (!provider.getDeferral().isZero()) {
+                continue;
+            }
+
+            long start = System.nanoTime();
+            SendOutcome attempt = dispatcher.throttle(provider.getName() + ":" + provider.getInstance(),
+                    () -> provider.sendPrepared(batch.forProvider(provider), promotionTarget));
+            if (attempt != SendOutcome.DEFERRED) {
+                health.get(provider.getName()).record(attempt, System.nanoTime() - start);
+            }
+
+            if (attempt == SendOutcome.UNREACHABLE) {
+                outcome = SendOutcome.RETRIABLE;
+            } else if (attempt != SendOutcome.DEFERRED) {
+                // Enviado, rejeitado ou falha depois que a requisição pode ter chegado: outro provedor duplicaria a mensagem
+                return attempt;
+            }
+            logger.debug("Provider {} could not send to target {}, trying the next one",
+                    provider.getName(), promotionTarget.getId());
+        }
+        return outcome;
+    }
+
+    /**
+     * How long sends should be held back because every provider's circuit is open
+     *
+     * @return Zero when at least one provider can send now
+     */
+    public Duration getDeferral() {
+        List<MessagingProvider> candidates = properties.isFailoverEnabled() ? providers : List.of(providers.get(0));
+        return candidates.stream()
+                .map(MessagingProvider::getDeferral)
+                .min(Comparator.naturalOrder())
+                .orElse(Duration.ZERO);
+    }
+
+    /**
+     * Error rate and latency of every provider, for monitoring
+     */
+    public Map<String, Map<String, Object>> getHealth() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        health.forEach((name, providerHealth) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("healthy", providerHealth.isHealthy());
+            stats.put("errorRate", providerHealth.getErrorRate());
+            stats.put("latencyMs", providerHealth.getLatencyMs());
+            result.put(name, stats);
+        });
+        return result;
+    }
+
+    private List<MessagingProvider> rankedProviders() {
+        // Ordenação estável: os saudáveis vêm primeiro, mantendo a ordem de preferência configurada
+        List<MessagingProvider> ranked = new ArrayList<>(providers);
+        ranked.sort(Comparator.comparing(provider -> !health.get(provider.getName()).isHealthy()));
+        return ranked;
+    }
+
+    /**
+     * A promotion rendered lazily, once per provider, and shared by all sends of a batch
+     */
+    public static final class PreparedBatch {
+
+        private final Promotion promotion;
+        private final Map<String, PreparedPromotion> byProvider = new ConcurrentHashMap<>();
+
+        private PreparedBatch(Promotion promotion) {
+            this.promotion = promotion;
+        }
+
+        PreparedPromotion forProvider(MessagingProvider provider) {
+            return byProvider.computeIfAbsent(provider.getName(), name -> provider.preparePromotion(promotion));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.valedosol.kaju.feature.promotion.service;
+
+import com.valedosol.kaju.common.concurrent.TokenBucket;
+import com.valedosol.kaju.feature.promotion.config.DispatchProperties;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Fans outbound sends out over a bounded worker pool.
+ * Every send takes a permit from the concurrency limit of the messaging
+ * instance it goes through and then a token from a shared rate limiter.
+ */
+@Service
+public class PromotionDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionDispatcher.class);
+
+    private final DispatchProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final TokenBucket rateLimiter;
+    private final Map<String, Semaphore> instanceLimits = new ConcurrentHashMap<>();
+
+    public PromotionDispatcher(DispatchProperties properties) {
+        this.properties = properties;
+        this.rateLimiter = new TokenBucket(properties.getRatePerSecond(), properties.getBurst());
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                properties.getWorkerThreads(),
+                properties.getWorkerThreads(),
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "promotion-dispatch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // When the queue is full the submitting thread runs the send itself, which throttles it
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Sends every item concurrently through the given instance
+     *
+     * @param instanceKey The messaging instance the items are sent through
+     * @param items The items to send
+     * @param sender The blocking send operation for a single item
+     * @return A future completed with the results, in the same order as the items
+     */
+    public <T, R> CompletableFuture<List<R>> dispatch(String instanceKey, List<T> items, Function<T, R> sender) {
+        return dispatch(items, item -> throttle(instanceKey, () -> sender.apply(item)));
+    }
+
+    /**
+     * Sends every item concurrently. The instance is only known once a send picks it,
+     * so the sender limits each call itself with {@link #throttle}.
+     *
+     * @param items The items to send
+     * @param sender The blocking send operation for a single item
+     * @return A future completed with the results, in the same order as the items
+     */
+    public <T, R> CompletableFuture<List<R>> dispatch(List<T> items, Function<T, R> sender) {
+        List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            futures.add(CompletableFuture.supplyAsync(() -> sender.apply(item), executor));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Runs one call through an instance, within its concurrency limit and the shared rate limit
+     *
+     * @param instanceKey The messaging instance the call goes through
+     * @param call The blocking call
+     * @return The result of the call
+     */
+    public <R> R throttle(String instanceKey, Supplier<R> call) {
+        Semaphore instanceLimit = instanceLimits.computeIfAbsent(instanceKey,
+                key -> new Semaphore(properties.getMaxConcurrencyPerInstance()));
+        try {
+            instanceLimit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Dispatch interrupted", e);
+        }
+
+        try {
+            // Token only after the permit: a thread still waiting for its instance must not hold one
+            rateLimiter.acquire();
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Dispatch interrupted", e);
+        } finally {
+            instanceLimit.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Promotion dispatch pool did not drain in time, forcing shutdown");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.valedosol.kaju.feature.promotion.service;
+
+import com.valedosol.kaju.config.http.HttpClientProperties;
+import com.valedosol.kaju.feature.promotion.config.MediaProperties;
+import com.valedosol.kaju.feature.promotion.dto.PromotionMedia;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Fetches promotion images once and keeps them in the "promotionMedia" cache,
+ * so every target of a blast (and every recurring occurrence) reuses the same
+ * inlined content instead of the provider downloading the image again.
+ * <p>
+ * Image URLs come from users, so they are only fetched over http(s), without following
+ * redirects, and never from loopback, private, link-local or cloud metadata addresses.
+ * The address check runs when the connection is opened, so a host cannot pass it with
+ * one DNS answer and then connect to another.
+ */
+@Service
+public class PromotionMediaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionMediaService.class);
+
+    public static final String CACHE_NAME = "promotionMedia";
+
+    private static final String DEFAULT_MIMETYPE = "image/jpeg";
+
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+    private final MediaProperties properties;
+    private final Cache cache;
+
+    public PromotionMediaService(MediaProperties properties, HttpClientProperties httpProperties,
+                                 CacheManager cacheManager) {
+        // Cliente próprio: o compartilhado com os provedores segue redirecionamentos e aceita qualquer endereço
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setDnsResolver(new PublicAddressResolver())
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.ofMilliseconds(httpProperties.getConnectTimeoutMs()))
+                                .setSocketTimeout(Timeout.ofMilliseconds(httpProperties.getReadTimeoutMs()))
+                                .build())
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.ofMilliseconds(httpProperties.getReadTimeoutMs()))
+                        .build())
+                .disableRedirectHandling()
+                .build();
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        this.properties = properties;
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    /**
+     * Resolves the media to send for an image URL
+     *
+     * @param imageUrl The promotion image URL
+     * @return The cached inline media, or a URL reference if the image could not be inlined
+     */
+    public PromotionMedia resolve(String imageUrl) {
+        if (!properties.isInlineEnabled() || cache == null) {
+            return urlReference(imageUrl);
+        }
+
+        PromotionMedia cached = cache.get(imageUrl, PromotionMedia.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        PromotionMedia media = fetch(imageUrl);
+        if (media.inline()) {
+            cache.put(imageUrl, media);
+        }
+        return media;
+    }
+
+    /**
+     * Drops the cached content of an image, e.g. after the promotion changed its image
+     */
+    public void evict(String imageUrl) {
+        if (cache != null && imageUrl != null) {
+            cache.evict(imageUrl);
+        }
+    }
+
+    private PromotionMedia fetch(String imageUrl) {
+        try {
+            if (!isAllowedUrl(URI.create(imageUrl))) {
+                logger.warn("Image {} is not on an allowed http(s) host, sending it by URL", imageUrl);
+                return urlReference(imageUrl);
+            }
+
+            byte[] content = restTemplate.execute(imageUrl, HttpMethod.GET, null, response ->
+                    response.getStatusCode().is2xxSuccessful() ? readLimited(response.getBody()) : new byte[0]);
+
+            if (content == null) {
+                logger.warn("Image {} exceeds {} bytes, sending it by URL", imageUrl, properties.getMaxBytes());
+                return urlReference(imageUrl);
+            }
+
+            String mimetype = sniffMimetype(content);
+            if (mimetype == null) {
+                logger.warn("Image {} has an unrecognised format, sending it by URL", imageUrl);
+                return urlReference(imageUrl);
+            }
+
+            logger.info("Cached promotion image {} ({} bytes, {})", imageUrl, content.length, mimetype);
+            return new PromotionMedia(Base64.getEncoder().encodeToString(content), mimetype,
+                    fileName(mimetype), true);
+        } catch (RestClientException | IllegalArgumentException e) {
+            logger.warn("Could not fetch promotion image {}: {}", imageUrl, e.getMessage());
+            return urlReference(imageUrl);
+        }
+    }
+
+    private boolean isAllowedUrl(URI uri) {
+        String scheme = uri.getScheme();
+        String host = uri.getHost();
+        if (host == null || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+            return false;
+        }
+        if (properties.getAllowedHosts().isEmpty()) {
+            return true;
+        }
+
+        String normalized = host.toLowerCase(Locale.ROOT);
+        return properties.getAllowedHosts().stream()
+                .map(allowed -> allowed.trim().toLowerCase(Locale.ROOT))
+                .anyMatch(allowed -> normalized.equals(allowed) || normalized.endsWith("." + allowed));
+    }
+
+    /**
+     * Whether the address can be reached from the internet, i.e. it is not loopback, private,
+     * link-local (which includes the 169.254.169.254 metadata endpoint) or otherwise internal
+     */
+    static boolean isPublicAddress(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet6Address) {
+            // fc00::/7, endereços locais únicos (inclui o fd00:ec2::254 de metadados da AWS)
+            return (bytes[0] & 0xFE) != 0xFC;
+        }
+        // 100.64.0.0/10 (CGNAT) e 0.0.0.0/8 também não são endereços públicos
+        return !((bytes[0] & 0xFF) == 100 && (bytes[1] & 0xC0) == 64) && bytes[0] != 0;
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        httpClient.close();
+    }
+
+    /**
+     * Resolves hosts for the media client and refuses any that point to a non-public address.
+     * It runs for every connection, so it also covers hosts whose DNS answer changes.
+     */
+    private static class PublicAddressResolver extends SystemDefaultDnsResolver {
+
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            InetAddress[] addresses = super.resolve(host);
+            for (InetAddress address : addresses) {
+                if (!isPublicAddress(address)) {
+                    throw new UnknownHostException(host + " resolves to a non-public address");
+                }
+            }
+            return addresses;
+        }
+    }
+
+    /**
+     * Reads the body, giving up as soon as it grows past the configured limit
+     *
+     * @return The content, or null if it is larger than the limit
+     */
+    private byte[] readLimited(InputStream body) throws IOException {
+        byte[] content = body.readNBytes(properties.getMaxBytes() + 1);
+        return content.length > properties.getMaxBytes() ? null : content;
+    }
+
+    /**
+     * Detects the image type from its leading bytes
+     *
+     * @return The mimetype, or null if it is not a supported image format
+     */
+    static String sniffMimetype(byte[] content) {
+        if (startsWith(content, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(content, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(content, 0, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(content, 0, 'R', 'I', 'F', 'F') && startsWith(content, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] content, int offset, int... signature) {
+        if (content.length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((content[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static PromotionMedia urlReference(String imageUrl) {
+        String mimetype = guessMimetypeFromUrl(imageUrl);
+        return new PromotionMedia(imageUrl, mimetype, fileName(mimetype), false);
+    }
+
+    private static String guessMimetypeFromUrl(String imageUrl) {
+        String path = imageUrl.toLowerCase();
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        if (path.endsWith(".png")) {
+            return "image/png";
+        }
+        if (path.endsWith(".gif")) {
+            return "image/gif";
+        }
+        if (path.endsWith(".webp")) {
+            return "image/webp";
+        }
+        return DEFAULT_MIMETYPE;
+    }
+
+    private static String fileName(String mimetype) {
+        return switch (mimetype) {
+            case "image/png" -> "promotion.png";
+            case "image/gif" -> "promotion.gif";
+            case "image/webp" -> "promotion.webp";
+            default -> "promotion.jpg";
+        };
+    }
+}
@@ -0,0 +1,409 @@
+package com.valedosol.kaju.feature.promotion.service;
+
+import com.valedosol.kaju.feature.auth.model.Account;
+import com.valedosol.kaju.feature.promotion.config.OutboxProperties;
+import com.valedosol.kaju.feature.promotion.dto.EnqueueResult;
+import com.valedosol.kaju.feature.promotion.dto.SendJobResponse;
+import com.valedosol.kaju.feature.promotion.event.PromotionScheduleChangedEvent;
+import com.valedosol.kaju.feature.promotion.model.Promotion;
+import com.valedosol.kaju.feature.promotion.model.SendOutbox;
+import com.valedosol.kaju.feature.promotion.model.SendOutcome;
+import com.valedosol.kaju.feature.promotion.model.SendOutbox.OutboxStatus;
+import com.valedosol.kaju.feature.promotion.repository.PromotionRepository;
+import com.valedosol.kaju.feature.promotion.repository.PromotionTargetRepository;
+import com.valedosol.kaju.feature.promotion.repository.SendOutboxRepository;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Persisted outbox for outbound promotion sends.
+ * <p>
+ * Enqueueing only writes rows; a background drainer claims batches with a lease,
+ * performs the HTTP calls with no transaction open and records the outcome in a
+ * short transaction. Rows left IN_FLIGHT by a crashed node are reclaimed once
+ * their lease expires. Claiming uses SKIP LOCKED, so several nodes can drain the
+ * outbox side by side, each taking a disjoint batch.
+ */
+@Service
+public class PromotionOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionOutboxService.class);
+
+    // Envios com desfecho definitivo; uma ocorrência termina quando todos os destinos chegaram a um deles
+    private static final List<OutboxStatus> SETTLED = List.of(OutboxStatus.SENT, OutboxStatus.FAILED);
+
+    private final SendOutboxRepository outboxRepository;
+    private final PromotionRepository promotionRepository;
+    private final PromotionTargetRepository promotionTargetRepository;
+    private final SendQuotaService quotaService;
+    private final MessagingRouter messagingRouter;
+    private final PromotionDispatcher dispatcher;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ExecutorService drainExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "promotion-outbox-drain");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+    public PromotionOutboxService(SendOutboxRepository outboxRepository,
+                                  PromotionRepository promotionRepository,
+                                  PromotionTargetRepository promotionTargetRepository,
+                                  SendQuotaService quotaService,
+                                  MessagingRouter messagingRouter,
+                                  PromotionDispatcher dispatcher,
+                                  OutboxProperties properties,
+                                  PlatformTransactionManager transactionManager,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.outboxRepository = outboxRepository;
+        this.promotionRepository = promotionRepository;
+        this.promotionTargetRepository = promotionTargetRepository;
+        this.quotaService = quotaService;
+        this.messagingRouter = messagingRouter;
+        this.dispatcher = dispatcher;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Enqueues the unsent targets of the promotion's current occurrence, limited to the
+     * creator's remaining weekly sends. The quota for every enqueued target is reserved
+     * here and refunded if the send finally fails. Targets already in the outbox are
+     * skipped, so calling this repeatedly is safe.
+     *
+     * @param promotion A promotion managed by the current transaction
+     * @return The job id of the enqueued sends and how many targets were enqueued
+     */
+    @Transactional
+    public EnqueueResult enqueue(Promotion promotion) {
+        Account creator = promotion.getCreator();
+        Integer occurrence = promotion.getTotalOccurrences();
+
+        // Os destinos da promoção precisam estar no banco antes do INSERT ... SELECT
+        promotionRepository.flush();
+
+        long pending = promotionTargetRepository.countEnqueueable(promotion.getId(), occurrence);
+        if (pending == 0) {
+            return new EnqueueResult(null, 0);
+        }
+
+        // Uma única reserva para o lote inteiro; o que não couber na cota fica para depois
+        int reserved = quotaService.reserveUpTo(creator.getId(), (int) Math.min(pending, Integer.MAX_VALUE));
+        if (reserved == 0) {
+            return new EnqueueResult(null, 0);
+        }
+
+        String jobId = UUID.randomUUID().toString();
+        int enqueued = outboxRepository.enqueueUnsentTargets(promotion.getId(), occurrence, jobId,
+                LocalDateTime.now(), reserved);
+        // Outro enqueue concorrente pode ter inserido parte dos destinos
+        quotaService.refund(creator.getId(), reserved - enqueued);
+        if (enqueued == 0) {
+            return new EnqueueResult(null, 0);
+        }
+
+        requestDrain();
+        return new EnqueueResult(jobId, enqueued);
+    }
+
+    /**
+     * Loads the outbox rows of a job, with their promotion and target
+     */
+    @Transactional(readOnly = true)
+    public List<SendOutbox> findJobEntries(String jobId) {
+        return outboxRepository.findByJobIdWithTargets(jobId);
+    }
+
+    /**
+     * Summarises the progress of a job from its outbox rows
+     */
+    public SendJobResponse toJobResponse(String jobId, List<SendOutbox> entries) {
+        Map<OutboxStatus, Long> countByStatus = entries.stream()
+                .collect(Collectors.groupingBy(SendOutbox::getStatus, Collectors.counting()));
+        int sent = countByStatus.getOrDefault(OutboxStatus.SENT, 0L).intValue();
+        int failed = countByStatus.getOrDefault(OutboxStatus.FAILED, 0L).intValue();
+        int pending = entries.size() - sent - failed;
+
+        String status;
+        if (pending > 0) {
+            status = "IN_PROGRESS";
+        } else if (failed > 0) {
+            status = "COMPLETED_WITH_FAILURES";
+        } else {
+            status = "COMPLETED";
+        }
+
+        List<SendJobResponse.TargetStatus> targets = entries.stream()
+                .map(entry -> SendJobResponse.TargetStatus.builder()
+                        .targetId(entry.getPromotionTarget().getTarget().getId())
+                        .targetName(entry.getPromotionTarget().getTarget().getName())
+                        .status(entry.getStatus().name())
+                        .attempts(entry.getAttempts())
+                        .sentAt(entry.getSentAt())
+                        .lastError(entry.getLastError())
+                        .build())
+                .toList();
+
+        return SendJobResponse.builder()
+                .jobId(jobId)
+                .promotionId(entries.isEmpty() ? null : entries.get(0).getPromotion().getId())
+                .status(status)
+                .total(entries.size())
+                .sent(sent)
+                .failed(failed)
+                .pending(pending)
+                .targets(targets)
+                .build();
+    }
+
+    /**
+     * Deletes every outbox row of a promotion, used before its targets are replaced or removed.
+     * The quota reserved for rows still waiting to be sent is refunded. Rows in flight may be
+     * delivered right now, so their quota is settled by the drainer once the outcome is known.
+     */
+    @Transactional
+    public void discard(Long promotionId) {
+        for (Object[] row : outboxRepository.countByCreatorForPromotion(promotionId, List.of(OutboxStatus.PENDING))) {
+            quotaService.refund((Long) row[0], ((Long) row[1]).intValue());
+        }
+        outboxRepository.deleteByPromotionId(promotionId);
+    }
+
+    @Scheduled(fixedDelayString = "${promotion.outbox.poll-interval-ms:2000}")
+    public void pollOutbox() {
+        requestDrain();
+    }
+
+    /**
+     * Wakes the drainer. Inside a transaction the drain starts after commit, so it sees the new rows.
+     */
+    public void requestDrain() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleDrain();
+                }
+            });
+        } else {
+            scheduleDrain();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            drainExecutor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        try {
+            List<SendOutbox> claimed;
+            // Com o circuito aberto não adianta reivindicar linhas; o próximo ciclo tenta de novo
+            while (messagingRouter.getDeferral().isZero() && !(claimed = claim()).isEmpty()) {
+                List<SendOutcome> results = send(claimed);
+                complete(claimed, results);
+            }
+        } catch (Exception e) {
+            logger.error("Erro ao processar a fila de envios: {}", e.getMessage(), e);
+        }
+    }
+
+    private List<SendOutbox> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<SendOutbox> batch = outboxRepository.findClaimable(OutboxStatus.PENDING, OutboxStatus.IN_FLIGHT,
+                    now, PageRequest.of(0, properties.getBatchSize()));
+
+            if (batch.isEmpty()) {
+                return batch;
+            }
+
+            List<Long> ids = batch.stream().map(SendOutbox::getId).toList();
+            outboxRepository.markInFlight(ids, OutboxStatus.IN_FLIGHT, nodeId,
+                    now.plusSeconds(properties.getLeaseSeconds()));
+            // Carrega promoção e destino sem travar essas linhas, só as do outbox ficam travadas
+            return outboxRepository.findAllWithTargetsByIdIn(ids);
+        });
+    }
+
+    private List<SendOutcome> send(List<SendOutbox> claimed) {
+        Map<Long, List<SendOutbox>> byPromotion = claimed.stream()
+                .collect(Collectors.groupingBy(entry -> entry.getPromotion().getId(),
+                        LinkedHashMap::new, Collectors.toList()));
+
+        Map<Long, CompletableFuture<List<SendOutcome>>> pending = new LinkedHashMap<>();
+        byPromotion.forEach((promotionId, entries) -> {
+            // Renderiza a promoção uma vez por lote; só o número muda entre os alvos
+            MessagingRouter.PreparedBatch prepared = messagingRouter.prepare(entries.get(0).getPromotion());
+            // O roteador limita cada tentativa pelo provedor que de fato a envia
+            pending.put(promotionId, dispatcher.dispatch(entries,
+                    entry -> messagingRouter.send(prepared, entry.getPromotionTarget())));
+        });
+
+        Map<Long, SendOutcome> resultById = new LinkedHashMap<>();
+        byPromotion.forEach((promotionId, entries) -> {
+            List<SendOutcome> results = pending.get(promotionId).join();
+            for (int i = 0; i < entries.size(); i++) {
+                resultById.put(entries.get(i).getId(), results.get(i));
+            }
+        });
+
+        List<SendOutcome> results = new ArrayList<>(claimed.size());
+        for (SendOutbox entry : claimed) {
+            results.add(resultById.get(entry.getId()));
+        }
+        return results;
+    }
+
+    private void complete(List<SendOutbox> claimed, List<SendOutcome> results) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            // Uma consulta traz linha, promoção, criador e destino; evita um SELECT por linha ao marcar os envios
+            Map<Long, SendOutbox> managed = outboxRepository
+                    .findAllWithTargetsByIdIn(claimed.stream().map(SendOutbox::getId).toList()).stream()
+                    .collect(Collectors.toMap(SendOutbox::getId, Function.identity()));
+            Map<Long, Promotion> touchedPromotions = new LinkedHashMap<>();
+            List<Long> sentEntryIds = new ArrayList<>();
+            List<Long> sentTargetIds = new ArrayList<>();
+            Map<Long, Integer> failedByCreator = new LinkedHashMap<>();
+
+            for (int i = 0; i < claimed.size(); i++) {
+                SendOutbox entry = managed.get(claimed.get(i).getId());
+                SendOutcome outcome = results.get(i);
+                if (entry == null) {
+                    // A linha foi descartada durante o envio; se nada saiu, a cota reservada volta ao criador
+                    if (outcome != SendOutcome.SENT) {
+                        failedByCreator.merge(claimed.get(i).getPromotion().getCreator().getId(), 1, Integer::sum);
+                    }
+                    continue;
+                }
+                // Outro nó assumiu a linha depois que o nosso lease expirou
+                if (!nodeId.equals(entry.getLeaseOwner())) {
+                    continue;
+                }
+
+                if (outcome == SendOutcome.SENT) {
+                    // Os envios bem-sucedidos são gravados em lote logo abaixo
+                    sentEntryIds.add(entry.getId());
+                    sentTargetIds.add(entry.getPromotionTarget().getId());
+                    touchedPromotions.putIfAbsent(entry.getPromotion().getId(), entry.getPromotion());
+                    continue;
+                }
+
+                entry.setLeaseOwner(null);
+                entry.setLeaseUntil(null);
+
+                if (outcome == SendOutcome.DEFERRED) {
+                    // O envio nem foi tentado: devolve a tentativa e espera o circuito fechar
+                    entry.setStatus(OutboxStatus.PENDING);
+                    entry.setAttempts(entry.getAttempts() - 1);
+                    entry.setNextAttemptAt(now.plus(messagingRouter.getDeferral()).plusSeconds(1));
+                } else if (outcome == SendOutcome.REJECTED) {
+                    entry.setStatus(OutboxStatus.FAILED);
+                    entry.setLastError("Envio rejeitado pelo provedor");
+                    touchedPromotions.putIfAbsent(entry.getPromotion().getId(), entry.getPromotion());
+                    failedByCreator.merge(entry.getPromotion().getCreator().getId(), 1, Integer::sum);
+                    logger.warn("Envio da promoção ID {} para o destino ID {} foi rejeitado pelo provedor",
+                            entry.getPromotion().getId(), entry.getPromotionTarget().getId());
+                } else if (entry.getAttempts() >= properties.getMaxAttempts()) {
+                    entry.setStatus(OutboxStatus.FAILED);
+                    entry.setLastError("Envio falhou após " + entry.getAttempts() + " tentativas");
+                    touchedPromotions.putIfAbsent(entry.getPromotion().getId(), entry.getPromotion());
+                    failedByCreator.merge(entry.getPromotion().getCreator().getId(), 1, Integer::sum);
+                    logger.warn("Envio da promoção ID {} para o destino ID {} falhou definitivamente",
+                            entry.getPromotion().getId(), entry.getPromotionTarget().getId());
+                } else {
+                    entry.setStatus(OutboxStatus.PENDING);
+                    entry.setLastError("Envio falhou na tentativa " + entry.getAttempts());
+                    entry.setNextAttemptAt(now.plus(retryDelay(entry.getAttempts())));
+                }
+            }
+
+            if (!sentEntryIds.isEmpty()) {
+                outboxRepository.markSent(sentEntryIds, OutboxStatus.SENT, now);
+                promotionTargetRepository.markSent(sentTargetIds, now);
+            }
+            // A cota foi reservada no enqueue; só volta a dos envios que falharam de vez ou foram descartados sem sair
+            failedByCreator.forEach(quotaService::refund);
+
+            touchedPromotions.values().forEach(this::rollOverIfComplete);
+        });
+    }
+
+    /**
+     * Exponential backoff with "equal jitter": half of the delay is fixed and the other half
+     * random, so retries after an outage do not all hit the provider at the same moment
+     */
+    private Duration retryDelay(int attempts) {
+        long base = TimeUnit.SECONDS.toMillis(properties.getRetryDelaySeconds());
+        long cap = TimeUnit.SECONDS.toMillis(properties.getMaxRetryDelaySeconds());
+        long delay = Math.min(cap, base << Math.min(attempts - 1, 20));
+        long half = delay / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    private void rollOverIfComplete(Promotion promotion) {
+        // Se for promoção recorrente e todos os destinos tiveram desfecho (enviados ou falha definitiva),
+        // calcula a próxima recorrência; um destino que falhou não pode travar as ocorrências seguintes
+        if (!promotion.isRecurring() || promotionTargetRepository.countUnsettled(promotion.getId(),
+                promotion.getTotalOccurrences(), SETTLED) > 0) {
+            return;
+        }
+
+        promotion.calculateNextRecurrence();
+        promotion.setTotalOccurrences(promotion.getTotalOccurrences() + 1);
+        eventPublisher.publishEvent(new PromotionScheduleChangedEvent(promotion.getId(),
+                promotion.isRecurring() ? promotion.getNextRecurrence() : null));
+
+        // Se a recorrência terminou
+        if (!promotion.isRecurring()) {
+            logger.info("Promoção recorrente ID {} encerrada após {} ocorrências",
+                    promotion.getId(), promotion.getTotalOccurrences());
+            return;
+        }
+
+        // Resetar o status de envio dos targets para a próxima recorrência
+        promotionTargetRepository.resetSentByPromotionId(promotion.getId());
+        logger.info("Promoção recorrente ID {} reprogramada para {} (ocorrência {})",
+                promotion.getId(), promotion.getNextRecurrence(), promotion.getTotalOccurrences());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,147 @@
+package com.valedosol.kaju.feature.promotion.service;
+
+import com.valedosol.kaju.feature.promotion.config.SchedulerProperties;
+import com.valedosol.kaju.feature.promotion.dto.PromotionDueTime;
+import com.valedosol.kaju.feature.promotion.event.PromotionScheduleChangedEvent;
+import com.valedosol.kaju.feature.promotion.repository.PromotionRepository;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires scheduled and recurring promotions at their due time.
+ * <p>
+ * Due times are kept in a {@link DelayQueue} served by a single thread, so a send is
+ * enqueued as soon as it is due and nothing runs while nothing is due. The queue is fed
+ * by {@link PromotionScheduleChangedEvent}s after commit, and a slow reconciliation
+ * loads everything due within the lookahead window, which picks up changes made on
+ * other nodes and anything that could not be sent yet.
+ */
+@Service
+public class PromotionScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionScheduler.class);
+
+    private final PromotionRepository promotionRepository;
+    private final PromotionService promotionService;
+    private final SchedulerProperties properties;
+
+    private final DelayQueue<DueEntry> queue = new DelayQueue<>();
+    // Latest due time per promotion; queue entries that no longer match it are stale
+    private final Map<Long, LocalDateTime> dueTimes = new ConcurrentHashMap<>();
+    private final Thread worker;
+
+    public PromotionScheduler(PromotionRepository promotionRepository,
+                              PromotionService promotionService,
+                              SchedulerProperties properties) {
+        this.promotionRepository = promotionRepository;
+        this.promotionService = promotionService;
+        this.properties = properties;
+        this.worker = new Thread(this::run, "promotion-scheduler");
+        this.worker.setDaemon(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reconcile();
+        worker.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(PromotionScheduleChangedEvent event) {
+        if (event.dueAt() == null) {
+            dueTimes.remove(event.promotionId());
+        } else {
+            schedule(event.promotionId(), event.dueAt());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${promotion.scheduler.reconcile-interval-ms:600000}",
+            initialDelayString = "${promotion.scheduler.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        LocalDateTime until = LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(properties.getLookaheadMs()));
+        try {
+            List<PromotionDueTime> scheduled = promotionRepository.findScheduledDueBefore(until);
+            List<PromotionDueTime> recurring = promotionRepository.findRecurringDueBefore(until);
+            scheduled.forEach(due -> schedule(due.getId(), due.getDueAt()));
+            recurring.forEach(due -> schedule(due.getId(), due.getDueAt()));
+            logger.debug("Agenda sincronizada: {} promoções agendadas e {} recorrentes até {}",
+                    scheduled.size(), recurring.size(), until);
+        } catch (Exception e) {
+            logger.error("Erro ao sincronizar a agenda de promoções: {}", e.getMessage(), e);
+        }
+    }
+
+    private void schedule(Long promotionId, LocalDateTime dueAt) {
+        LocalDateTime previous = dueTimes.put(promotionId, dueAt);
+        if (!dueAt.equals(previous)) {
+            queue.put(new DueEntry(promotionId, dueAt));
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            DueEntry entry;
+            try {
+                entry = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            // Entrada substituída por um novo horário ou cancelada
+            if (!dueTimes.remove(entry.promotionId, entry.dueAt)) {
+                continue;
+            }
+
+            try {
+                promotionService.enqueueIfDue(entry.promotionId);
+            } catch (Exception e) {
+                logger.error("Erro ao processar promoção agendada ID {}: {}", entry.promotionId, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.interrupt();
+    }
+
+    private static final class DueEntry implements Delayed {
+
+        private final Long promotionId;
+        private final LocalDateTime dueAt;
+        private final long dueAtMillis;
+
+        private DueEntry(Long promotionId, LocalDateTime dueAt) {
+            this.promotionId = promotionId;
+            this.dueAt = dueAt;
+            this.dueAtMillis = dueAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((DueEntry) other).dueAtMillis);
+        }
+    }
+}
@@ -1,18 +1,18 @@
 package com.valedosol.kaju.feature.promotion.service;
 
 import com.valedosol.kaju.feature.auth.model.Account;
-import com.valedosol.kaju.feature.auth.repository.AccountRepository;
+import com.valedosol.kaju.feature.promotion.dto.EnqueueResult;
+import com.valedosol.kaju.feature.promotion.event.PromotionScheduleChangedEvent;
 import com.valedosol.kaju.feature.promotion.model.Promotion;
-import com.valedosol.kaju.feature.promotion.model.PromotionTarget;
 import com.valedosol.kaju.feature.promotion.repository.PromotionRepository;
-import com.valedosol.kaju.feature.promotion.repository.PromotionTargetRepository;
 
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Service
 public class PromotionService {
@@ -20,134 +20,69 @@ public class PromotionService {
     private static final Logger logger = LoggerFactory.getLogger(PromotionService.class);
 
     private final PromotionRepository promotionRepository;
-    private final PromotionTargetRepository promotionTargetRepository;
-    private final AccountRepository accountRepository;
-    private final EvolutionService whatsAppService;
+    private final SendQuotaService quotaService;
+    private final PromotionOutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PromotionService(PromotionRepository promotionRepository,
-                            PromotionTargetRepository promotionTargetRepository,
-                            AccountRepository accountRepository,
-                            EvolutionService whatsAppService) {
+                            SendQuotaService quotaService,
+                            PromotionOutboxService outboxService,
+                            PlatformTransactionManager transactionManager,
+                            ApplicationEventPublisher eventPublisher) {
         this.promotionRepository = promotionRepository;
-        this.promotionTargetRepository = promotionTargetRepository;
-        this.accountRepository = accountRepository;
-        this.whatsAppService = whatsAppService;
+        this.quotaService = quotaService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
     }
 
-    // Verifica promoções agendadas a cada minuto
-    @Scheduled(fixedRate = 60000)
-    public void checkScheduledPromotions() {
+    /**
+     * Enqueues a scheduled or recurring promotion whose send time has come
+     *
+     * @param promotionId The promotion to enqueue
+     */
+    public void enqueueIfDue(Long promotionId) {
         LocalDateTime now = LocalDateTime.now();
-
-        // Busca promoções que estão programadas até o momento atual e que ainda não foram totalmente enviadas
-        List<Promotion> duePromotions = promotionRepository
-                .findByScheduledTimeBeforeAndNotFullySent(now);
-
-        processPromotions(duePromotions, now, "agendadas");
-
-        // Verifica também promoções recorrentes que devem ser enviadas agora
-        List<Promotion> dueRecurringPromotions = promotionRepository
-                .findByRecurringTrueAndNextRecurrenceBefore(now);
-
-        processPromotions(dueRecurringPromotions, now, "recorrentes");
+        transactionTemplate.executeWithoutResult(status -> enqueueDuePromotion(promotionId, now));
     }
 
-    private void processPromotions(List<Promotion> promotions, LocalDateTime now, String type) {
-        if (!promotions.isEmpty()) {
-            logger.info("Encontradas {} promoções {} para envio", promotions.size(), type);
+    private void enqueueDuePromotion(Long promotionId, LocalDateTime now) {
+        // Com várias réplicas, só o nó que conseguir travar a promoção a enfileira; os demais pulam
+        Promotion promotion = promotionRepository.findByIdForUpdateSkipLocked(promotionId).orElse(null);
+        if (promotion == null) {
+            return;
         }
 
-        for (Promotion promotion : promotions) {
-            try {
-                // Processa o envio
-                Account creator = promotion.getCreator();
-
-                // Verifica se o usuário ainda tem envios disponíveis
-                if (creator.getRemainingWeeklySends() > 0) {
-                    // Envia a promoção para todos os destinos não enviados
-                    boolean anySuccess = false;
-                    int targetsProcessed = 0;
-
-                    for (PromotionTarget promotionTarget : promotion.getPromotionTargets()) {
-                        if (!promotionTarget.isSent()) {
-                            boolean sent = whatsAppService.sendPromotionToTarget(promotion, promotionTarget);
-
-                            if (sent) {
-                                promotionTarget.setSent(true);
-                                promotionTarget.setSentTime(LocalDateTime.now());
-                                promotionTargetRepository.save(promotionTarget);
-                                anySuccess = true;
-                                targetsProcessed++;
-
-                                // Decrementa os envios semanais restantes para cada target enviado
-                                creator.setRemainingWeeklySends(creator.getRemainingWeeklySends() - 1);
-                                if (creator.getRemainingWeeklySends() <= 0) {
-                                    // Se acabaram os envios, interrompe o processamento
-                                    break;
-                                }
-                            }
-                        }
-                    }
-
-                    // Se envio foi bem sucedido para pelo menos um destino
-                    if (anySuccess) {
-                        // Se for promoção recorrente e todos os destinos foram processados, calcula a próxima recorrência
-                        if (promotion.isRecurring() && promotion.isFullySent()) {
-                            promotion.calculateNextRecurrence();
-                            promotion.setTotalOccurrences(promotion.getTotalOccurrences() + 1);
-
-                            // Se a recorrência terminou
-                            if (!promotion.isRecurring()) {
-                                logger.info("Promoção recorrente ID {} encerrada após {} ocorrências",
-                                        promotion.getId(), promotion.getTotalOccurrences());
-                            } else {
-                                // Resetar o status de envio dos targets para a próxima recorrência
-                                for (PromotionTarget pt : promotion.getPromotionTargets()) {
-                                    pt.setSent(false);
-                                    pt.setSentTime(null);
-                                    promotionTargetRepository.save(pt);
-                                }
-                            }
-                        }
+        // Relê o horário sob a trava: a entrada da fila pode ser de antes de uma edição
+        // ou de um reagendamento feito por outro nó, e não pode disparar o envio antes da hora
+        LocalDateTime dueAt = promotion.nextSendTime();
+        if (dueAt == null || dueAt.isAfter(now)) {
+            return;
+        }
 
-                        promotionRepository.save(promotion);
-                        accountRepository.save(creator);
+        Account creator = promotion.getCreator();
 
-                        logger.info("Promoção ID {} enviada para {} destinos (ocorrência {})",
-                                promotion.getId(), targetsProcessed,
-                                promotion.getTotalOccurrences());
-                    }
-                } else {
-                    logger.warn("Usuário {} sem envios disponíveis. Promoção ID {} não enviada.",
-                            creator.getEmail(), promotion.getId());
+        // Verifica se o usuário ainda tem envios disponíveis
+        if (quotaService.getRemainingWeeklySends(creator) <= 0) {
+            logger.warn("Usuário {} sem envios disponíveis. Promoção ID {} não enviada.",
+                    creator.getEmail(), promotion.getId());
 
-                    // Se for recorrente, programar para a próxima semana
-                    if (promotion.isRecurring()) {
-                        promotion.calculateNextRecurrence();
-                        promotionRepository.save(promotion);
-                        logger.info("Promoção recorrente ID {} reprogramada para {}",
-                                promotion.getId(), promotion.getNextRecurrence());
-                    }
-                }
-            } catch (Exception e) {
-                logger.error("Erro ao processar promoção agendada: {}", e.getMessage());
+            // Se for recorrente, programar para a próxima semana
+            if (promotion.isRecurring()) {
+                promotion.calculateNextRecurrence();
+                promotionRepository.save(promotion);
+                eventPublisher.publishEvent(new PromotionScheduleChangedEvent(promotion.getId(), promotion.nextSendTime()));
+                logger.info("Promoção recorrente ID {} reprogramada para {}",
+                        promotion.getId(), promotion.getNextRecurrence());
             }
+            return;
         }
-    }
 
-    // Reset weekly sends every Monday at 00:01
-    @Scheduled(cron = "0 1 0 * * 1")
-    public void resetWeeklySends() {
-        logger.info("Executando reset semanal de envios");
-        List<Account> accounts = accountRepository.findAll();
-        for (Account account : accounts) {
-            if (account.getSubscriptionPlan() != null) {
-                account.setRemainingWeeklySends(account.getSubscriptionPlan().getWeeklyAllowedSends());
-                account.setLastResetDate(LocalDateTime.now());
-                accountRepository.save(account);
-                logger.info("Resets de envios para usuário {}: {}",
-                        account.getEmail(), account.getRemainingWeeklySends());
-            }
+        EnqueueResult result = outboxService.enqueue(promotion);
+        if (result.getEnqueued() > 0) {
+            logger.info("Promoção ID {} enfileirada para {} destinos (ocorrência {}, lote {})",
+                    promotion.getId(), result.getEnqueued(), promotion.getTotalOccurrences(), result.getJobId());
         }
     }
-}
\ No newline at end of file
+}
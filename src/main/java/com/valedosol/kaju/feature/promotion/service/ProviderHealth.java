@@ -0,0 +1,59 @@
+package com.valedosol.kaju.feature.promotion.service;
+
+import com.valedosol.kaju.feature.promotion.config.MessagingProperties;
+import com.valedosol.kaju.feature.promotion.model.SendOutcome;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exponentially weighted error rate and latency of one messaging provider.
+ * A provider that has been unhealthy and idle for {@code recovery-probe-seconds}
+ * counts as healthy again, so it gets traffic that can prove it has recovered.
+ */
+class ProviderHealth {
+
+    private final MessagingProperties properties;
+
+    private double errorRate;
+    private double latencyMs;
+    private long samples;
+    private long lastSampleNanos = System.nanoTime();
+
+    ProviderHealth(MessagingProperties properties) {
+        this.properties = properties;
+    }
+
+    synchronized void record(SendOutcome outcome, long elapsedNanos) {
+        double alpha = properties.getSmoothing();
+        double error = outcome == SendOutcome.RETRIABLE || outcome == SendOutcome.UNREACHABLE ? 1.0 : 0.0;
+        double elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+
+        if (samples == 0) {
+            errorRate = error;
+            latencyMs = elapsedMs;
+        } else {
+            errorRate = alpha * error + (1 - alpha) * errorRate;
+            latencyMs = alpha * elapsedMs + (1 - alpha) * latencyMs;
+        }
+        samples++;
+        lastSampleNanos = System.nanoTime();
+    }
+
+    synchronized boolean isHealthy() {
+        if (samples < properties.getMinSamples()) {
+            return true;
+        }
+        if (errorRate <= properties.getMaxErrorRate() && latencyMs <= properties.getMaxLatencyMs()) {
+            return true;
+        }
+        return System.nanoTime() - lastSampleNanos >= TimeUnit.SECONDS.toNanos(properties.getRecoveryProbeSeconds());
+    }
+
+    synchronized double getErrorRate() {
+        return errorRate;
+    }
+
+    synchronized double getLatencyMs() {
+        return latencyMs;
+    }
+}
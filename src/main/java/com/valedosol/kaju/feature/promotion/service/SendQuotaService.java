@@ -0,0 +1,188 @@
+package com.valedosol.kaju.feature.promotion.service;
+
+import com.valedosol.kaju.feature.auth.model.Account;
+import com.valedosol.kaju.feature.auth.repository.AccountRepository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Weekly send quota of an account.
+ * <p>
+ * Sends are reserved up front with a conditional UPDATE, so concurrent requests,
+ * the scheduler and other nodes cannot overdraw the quota, and a whole blast costs
+ * one quota operation instead of one per target. Reserved sends that end up not
+ * being delivered are refunded.
+ * <p>
+ * Each account has its own weekly window, anchored on {@code lastResetDate}. An expired
+ * window is renewed lazily the next time the quota is read or reserved, so renewals
+ * are spread over the week instead of all accounts resetting at the same moment.
+ * <p>
+ * The quota columns are only written by these UPDATEs, never by saving the entity. After
+ * each one, an account already loaded in the transaction is refreshed and the cached
+ * copies of the account are evicted, so nobody keeps reading the old balance.
+ */
+@Service
+public class SendQuotaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SendQuotaService.class);
+
+    // Quantas vezes tenta reservar o saldo relido quando outra reserva o consumiu antes
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+
+    private static final Duration QUOTA_WINDOW = Duration.ofDays(7);
+
+    private final AccountRepository accountRepository;
+    private final EntityManager entityManager;
+    private final Cache accountCache;
+
+    public SendQuotaService(AccountRepository accountRepository, EntityManager entityManager,
+                            CacheManager cacheManager) {
+        this.accountRepository = accountRepository;
+        this.entityManager = entityManager;
+        this.accountCache = cacheManager.getCache("accounts");
+    }
+
+    /**
+     * Current remaining sends of the account, renewing its window first if it expired
+     *
+     * @param account The account, possibly loaded before the window expired
+     * @return How many sends the account can still make in its current window
+     */
+    @Transactional
+    public int getRemainingWeeklySends(Account account) {
+        if (renewIfExpired(account.getId(), account.getLastResetDate())) {
+            return accountRepository.findRemainingWeeklySends(account.getId()).orElse(0);
+        }
+        return account.getRemainingWeeklySends();
+    }
+
+    /**
+     * Reserves up to the requested number of sends
+     *
+     * @param accountId The account whose quota is reserved
+     * @param requested How many sends are wanted
+     * @return How many sends were reserved, between 0 and {@code requested}
+     */
+    @Transactional
+    public int reserveUpTo(Long accountId, int requested) {
+        renewIfExpired(accountId, accountRepository.findLastResetDate(accountId).orElse(null));
+
+        int wanted = requested;
+        for (int attempt = 0; attempt < MAX_RESERVE_ATTEMPTS && wanted > 0; attempt++) {
+            if (accountRepository.reserveWeeklySends(accountId, wanted) == 1) {
+                quotaChanged(accountId);
+                return wanted;
+            }
+            // Saldo menor que o pedido: tenta reservar o que sobrou
+            wanted = Math.min(wanted, accountRepository.findRemainingWeeklySends(accountId).orElse(0));
+        }
+        return 0;
+    }
+
+    /**
+     * Gives back sends that were reserved but not delivered. The reservation may come from
+     * a window that has been renewed since, so the result is capped at the plan's weekly
+     * allowance.
+     *
+     * @param accountId The account the sends were reserved from
+     * @param count How many sends to give back
+     */
+    @Transactional
+    public void refund(Long accountId, int count) {
+        if (count <= 0) {
+            return;
+        }
+        if (accountRepository.refundWeeklySends(accountId, count) == 1) {
+            quotaChanged(accountId);
+        }
+        logger.debug("Devolvidos {} envios semanais à conta ID {}", count, accountId);
+    }
+
+    /**
+     * Starts a new window at the plan's full allowance, e.g. when a subscription is activated.
+     * The plan must already be saved on the account.
+     *
+     * @param account The account, which also gets the new window when it is a detached copy
+     */
+    @Transactional
+    public void startWindow(Account account) {
+        LocalDateTime now = LocalDateTime.now();
+        if (accountRepository.startWeeklySends(account.getId(), now) == 1) {
+            quotaChanged(account.getId());
+        }
+        account.setLastResetDate(now);
+        account.setRemainingWeeklySends(account.getSubscriptionPlan().getWeeklyAllowedSends());
+    }
+
+    /**
+     * Overrides the remaining sends of the current window, for administration
+     */
+    @Transactional
+    public void setRemainingWeeklySends(Long accountId, int sends) {
+        if (accountRepository.setWeeklySends(accountId, sends) == 1) {
+            quotaChanged(accountId);
+        }
+    }
+
+    /**
+     * Starts a new window when the current one has expired. The new window keeps the
+     * account's weekly cadence: it starts at the last window boundary, not at the time
+     * of the call.
+     *
+     * @return true when this call renewed the window
+     */
+    private boolean renewIfExpired(Long accountId, LocalDateTime lastResetDate) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiredBefore = now.minus(QUOTA_WINDOW);
+        if (lastResetDate != null && !lastResetDate.isBefore(expiredBefore)) {
+            return false;
+        }
+
+        LocalDateTime windowStart = now;
+        if (lastResetDate != null) {
+            long elapsedWindows = Duration.between(lastResetDate, now).dividedBy(QUOTA_WINDOW);
+            windowStart = lastResetDate.plus(QUOTA_WINDOW.multipliedBy(elapsedWindows));
+        }
+
+        // Com várias réplicas só o primeiro UPDATE renova; os demais não encontram a janela expirada
+        boolean renewed = accountRepository.renewWeeklySends(accountId, windowStart, expiredBefore) == 1;
+        if (renewed) {
+            quotaChanged(accountId);
+            logger.debug("Janela de envios da conta ID {} renovada a partir de {}", accountId, windowStart);
+        }
+        return renewed;
+    }
+
+    /**
+     * Brings the account in line with a quota UPDATE that went around the persistence context
+     */
+    private void quotaChanged(Long accountId) {
+        // Devolve a instância já carregada na transação, ou um proxy sem consulta se ela não foi carregada
+        Account account = entityManager.getReference(Account.class, accountId);
+        String email;
+        if (Hibernate.isInitialized(account)) {
+            entityManager.refresh(account);
+            email = account.getEmail();
+        } else {
+            email = accountCache != null ? accountRepository.findEmailById(accountId).orElse(null) : null;
+        }
+
+        // A conta fica em cache pelo id e pelo e-mail
+        if (accountCache != null) {
+            accountCache.evict(accountId);
+            if (email != null) {
+                accountCache.evict(email);
+            }
+        }
+    }
+}
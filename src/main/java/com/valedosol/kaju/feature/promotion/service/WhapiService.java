@@ -6,23 +6,25 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import com.valedosol.kaju.config.http.CircuitBreakerRegistry;
+import com.valedosol.kaju.feature.promotion.dto.PreparedPromotion;
+import com.valedosol.kaju.feature.promotion.dto.PromotionMedia;
 import com.valedosol.kaju.feature.promotion.model.Promotion;
 import com.valedosol.kaju.feature.promotion.model.PromotionTarget;
+import com.valedosol.kaju.feature.promotion.model.SendOutcome;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Service
-public class WhapiService {
+public class WhapiService extends AbstractHttpMessagingProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(WhapiService.class);
 
-    private final RestTemplate restTemplate;
+    private final PromotionMediaService mediaService;
 
     @Value("${whapi.api.url}")
     private String whapiApiUrl;
@@ -33,86 +35,72 @@ public class WhapiService {
     @Value("${whapi.phone.id}")
     private String whapiPhoneId;
 
-    public WhapiService() {
-        this.restTemplate = new RestTemplate();
+    public WhapiService(RestTemplate restTemplate, PromotionDispatcher dispatcher,
+                        PromotionMediaService mediaService, CircuitBreakerRegistry circuitBreakers) {
+        super(restTemplate, dispatcher, circuitBreakers);
+        this.mediaService = mediaService;
+    }
+
+    @Override
+    public String getName() {
+        return "whapi";
+    }
+
+    @Override
+    public String getInstance() {
+        return whapiPhoneId;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return whapiApiUrl != null && !whapiApiUrl.isBlank()
+                && whapiApiToken != null && !whapiApiToken.isBlank();
     }
 
     /**
-     * Sends a promotion to a specific target
+     * Renders the promotion into the request that is sent to every target
      *
-     * @param promotion The promotion to send
-     * @param promotionTarget The target to send the promotion to
-     * @return true if the message was sent successfully, false otherwise
+     * @param promotion The promotion to render
+     * @return The rendered request, safe to share between threads
      */
-    public boolean sendPromotionToTarget(Promotion promotion, PromotionTarget promotionTarget) {
-        try {
-            String targetIdentifier = promotionTarget.getTarget().getIdentifier();
-
-            // Create message payload
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("to", targetIdentifier);
-
-            // Generate message caption from promotion
-            String caption = createMessageCaption(promotion);
-            payload.put("caption", caption);
-
-            // Add image URL if available
-            if (promotion.getImageUrl() != null && !promotion.getImageUrl().isEmpty()) {
-                payload.put("media", promotion.getImageUrl());
-            }
-
-            // Set up headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + whapiApiToken);
-
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
-
-            // Send message to WhatsApp API
-            String endpoint = whapiApiUrl + "/messages/image";
-            logger.debug("Sending promotion to {}: {}", targetIdentifier, payload);
-
-            ResponseEntity<Map> response = restTemplate.postForEntity(endpoint, request, Map.class);
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                logger.info("Successfully sent promotion {} to target {}",
-                        promotion.getId(), promotionTarget.getTarget().getName());
-                return true;
-            } else {
-                logger.error("Failed to send promotion: API returned status code {}",
-                        response.getStatusCode());
-                return false;
-            }
-
-        } catch (RestClientException e) {
-            logger.error("Error sending WhatsApp message: {}", e.getMessage());
-            return false;
-        } catch (Exception e) {
-            logger.error("Unexpected error sending promotion: {}", e.getMessage());
-            return false;
+    @Override
+    public PreparedPromotion preparePromotion(Promotion promotion) {
+        Map<String, Object> payload = new HashMap<>();
+        String endpoint;
+
+        // Add image if available
+        if (promotion.getImageUrl() != null && !promotion.getImageUrl().isEmpty()) {
+            PromotionMedia media = mediaService.resolve(promotion.getImageUrl());
+            // Whapi takes inline media as a data URL
+            payload.put("media", media.inline()
+                    ? "data:" + media.mimetype() + ";base64," + media.media()
+                    : media.media());
+            payload.put("caption", createMessageCaption(promotion));
+            endpoint = whapiApiUrl + "/messages/image";
+        } else {
+            payload.put("text", createMessageCaption(promotion));
+            endpoint = whapiApiUrl + "/messages/text";
         }
+
+        return new PreparedPromotion(endpoint, Map.copyOf(payload), jsonHeaders());
     }
 
     /**
-     * Creates a formatted message caption from the promotion details
+     * Sends an already rendered promotion to a specific target
      *
-     * @param promotion The promotion to create a caption for
-     * @return The formatted message caption
+     * @param prepared The rendered promotion
+     * @param promotionTarget The target to send the promotion to
+     * @return The outcome of the send; DEFERRED when the circuit is open
      */
-    private String createMessageCaption(Promotion promotion) {
-        StringBuilder caption = new StringBuilder();
-
-        // Add title in bold if available
-        if (promotion.getTitle() != null && !promotion.getTitle().isEmpty()) {
-            caption.append("*").append(promotion.getTitle()).append("*\n\n");
-        }
+    @Override
+    public SendOutcome sendPrepared(PreparedPromotion prepared, PromotionTarget promotionTarget) {
+        String targetIdentifier = promotionTarget.getTarget().getIdentifier();
 
-        // Add description if available
-        if (promotion.getDescription() != null && !promotion.getDescription().isEmpty()) {
-            caption.append(promotion.getDescription());
-        }
+        Map<String, Object> payload = new HashMap<>(prepared.payload());
+        payload.put("to", targetIdentifier);
+        logger.debug("Sending promotion to {}: {}", targetIdentifier, payload);
 
-        return caption.toString();
+        return post(prepared.endpoint(), new HttpEntity<>(payload, prepared.headers()), targetIdentifier);
     }
 
     /**
@@ -123,44 +111,19 @@ public class WhapiService {
      * @return true if successful, false otherwise
      */
     public boolean sendTextMessage(String targetIdentifier, String message) {
-        try {
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("to", targetIdentifier);
-            payload.put("text", message);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + whapiApiToken);
-
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("to", targetIdentifier);
+        payload.put("text", message);
 
-            String endpoint = whapiApiUrl + "/messages/text";
+        String endpoint = whapiApiUrl + "/messages/text";
 
-            ResponseEntity<Map> response = restTemplate.postForEntity(endpoint, request, Map.class);
-
-            return response.getStatusCode().is2xxSuccessful();
-        } catch (Exception e) {
-            logger.error("Error sending text message: {}", e.getMessage());
-            return false;
-        }
+        return post(endpoint, new HttpEntity<>(payload, jsonHeaders()), targetIdentifier).isSent();
     }
 
-    /**
-     * Sends a batch of promotions to multiple targets
-     *
-     * @param promotion The promotion to send
-     * @param targets List of promotion targets
-     * @return The number of messages successfully sent
-     */
-    public int sendPromotionToBatch(Promotion promotion, Iterable<PromotionTarget> targets) {
-        int successCount = 0;
-
-        for (PromotionTarget target : targets) {
-            if (sendPromotionToTarget(promotion, target)) {
-                successCount++;
-            }
-        }
-
-        return successCount;
+    private HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Bearer " + whapiApiToken);
+        return HttpHeaders.readOnlyHttpHeaders(headers);
     }
-}
\ No newline at end of file
+}
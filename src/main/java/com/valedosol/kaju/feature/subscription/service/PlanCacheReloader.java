@@ -0,0 +1,54 @@
+package com.valedosol.kaju.feature.subscription.service;
+
+import com.valedosol.kaju.config.cache.CacheReloader;
+import com.valedosol.kaju.feature.subscription.model.SubscriptionPlan;
+import com.valedosol.kaju.feature.subscription.repository.SubscriptionPlanRepository;
+
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reloads the "plans" cache filled by {@link SubscriptionPlanService}
+ */
+@Component
+public class PlanCacheReloader implements CacheReloader {
+
+    private final SubscriptionPlanRepository subscriptionPlanRepository;
+
+    public PlanCacheReloader(SubscriptionPlanRepository subscriptionPlanRepository) {
+        this.subscriptionPlanRepository = subscriptionPlanRepository;
+    }
+
+    @Override
+    public String getCacheName() {
+        return "plans";
+    }
+
+    @Override
+    public Object load(Object key) {
+        // getAllPlans() has no arguments, so Spring caches it under the empty key
+        if (SimpleKey.EMPTY.equals(key)) {
+            return subscriptionPlanRepository.findAll();
+        }
+        if (key instanceof Long id) {
+            return subscriptionPlanRepository.findById(id).orElse(null);
+        }
+        return null;
+    }
+
+    /**
+     * The plan list and every plan by id, from a single query
+     */
+    @Override
+    public Map<?, ?> loadWarmUpEntries() {
+        List<SubscriptionPlan> plans = subscriptionPlanRepository.findAll();
+        Map<Object, Object> entries = new HashMap<>();
+        entries.put(SimpleKey.EMPTY, plans);
+        plans.forEach(plan -> entries.put(plan.getId(), plan));
+        return entries;
+    }
+}
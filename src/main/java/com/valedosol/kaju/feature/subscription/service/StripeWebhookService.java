@@ -2,14 +2,17 @@ package com.valedosol.kaju.feature.subscription.service;
 
 import com.stripe.model.Event;
 import com.stripe.model.Subscription;
+import com.valedosol.kaju.feature.auth.event.AccountChangedEvent;
 import com.valedosol.kaju.feature.auth.model.Account;
 import com.valedosol.kaju.feature.auth.repository.AccountRepository;
+import com.valedosol.kaju.feature.promotion.service.SendQuotaService;
 import com.valedosol.kaju.feature.subscription.model.StripeSubscription;
 import com.valedosol.kaju.feature.subscription.repository.StripeSubscriptionRepository;
 import com.valedosol.kaju.feature.subscription.model.SubscriptionPlan;
 import com.valedosol.kaju.feature.subscription.repository.SubscriptionPlanRepository;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,14 +28,20 @@ public class StripeWebhookService {
     private final AccountRepository accountRepository;
     private final SubscriptionPlanRepository planRepository;
     private final StripeSubscriptionRepository subscriptionRepository;
+    private final SendQuotaService quotaService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public StripeWebhookService(
             AccountRepository accountRepository,
             SubscriptionPlanRepository planRepository,
-            StripeSubscriptionRepository subscriptionRepository) {
+            StripeSubscriptionRepository subscriptionRepository,
+            SendQuotaService quotaService,
+            ApplicationEventPublisher eventPublisher) {
         this.accountRepository = accountRepository;
         this.planRepository = planRepository;
         this.subscriptionRepository = subscriptionRepository;
+        this.quotaService = quotaService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -89,8 +98,10 @@ public class StripeWebhookService {
             // Update account if subscription is active
             if ("active".equals(status)) {
                 account.setSubscriptionPlan(plan);
-                account.setRemainingWeeklySends(plan.getWeeklyAllowedSends());
                 accountRepository.save(account);
+                // The weekly send window starts when the subscription is activated
+                quotaService.startWindow(account);
+                eventPublisher.publishEvent(new AccountChangedEvent(account.getEmail()));
                 log.info("Activated subscription for user: {}, plan: {}", account.getEmail(), plan.getName());
             }
         } catch (Exception e) {
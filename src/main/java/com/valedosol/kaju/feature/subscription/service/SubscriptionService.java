@@ -1,8 +1,10 @@
 package com.valedosol.kaju.feature.subscription.service;
 
 import com.valedosol.kaju.common.exception.ResourceNotFoundException;
+import com.valedosol.kaju.config.UserContext;
 import com.valedosol.kaju.feature.auth.model.Account;
 import com.valedosol.kaju.feature.auth.repository.AccountRepository;
+import com.valedosol.kaju.feature.promotion.service.SendQuotaService;
 import com.valedosol.kaju.feature.subscription.dto.PaymentSessionResponse;
 import com.valedosol.kaju.feature.subscription.dto.SessionDto;
 import com.valedosol.kaju.feature.subscription.dto.SubscriptionResponse;
@@ -11,7 +13,6 @@ import com.valedosol.kaju.feature.subscription.model.SubscriptionPlan;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -21,13 +22,19 @@ public class SubscriptionService {
     private final AccountRepository accountRepository;
     private final SubscriptionPlanService planService;
     private final StripeService stripeService;
+    private final SendQuotaService quotaService;
+    private final UserContext userContext;
 
     public SubscriptionService(
             AccountRepository accountRepository,
             SubscriptionPlanService planService,
-            StripeService stripeService) {
+            StripeService stripeService,
+            SendQuotaService quotaService,
+            UserContext userContext) {
         this.accountRepository = accountRepository;
         this.planService = planService;
+        this.quotaService = quotaService;
+        this.userContext = userContext;
         this.stripeService = stripeService;
     }
 
@@ -43,7 +50,7 @@ public class SubscriptionService {
     private SubscriptionResponse buildSubscriptionResponse(Account account) {
         SubscriptionResponse response = new SubscriptionResponse();
         response.setEmail(account.getEmail());
-        response.setRemainingWeeklySends(account.getRemainingWeeklySends());
+        response.setRemainingWeeklySends(quotaService.getRemainingWeeklySends(account));
         
         SubscriptionPlan plan = account.getSubscriptionPlan();
         if (plan != null) {
@@ -93,18 +100,19 @@ public class SubscriptionService {
         SubscriptionPlan plan = planService.getPlanById(planId);
 
         account.setSubscriptionPlan(plan);
-        account.setRemainingWeeklySends(plan.getWeeklyAllowedSends());
-        account.setLastResetDate(LocalDateTime.now());
         accountRepository.save(account);
+        quotaService.startWindow(account);
 
         return buildSubscriptionResponse(account);
     }
 
     /**
-     * Helper method to find account by email
+     * Helper method to find account by email, reusing the request's account when it is the one asked for
      */
     private Account findAccountByEmail(String email) {
-        return accountRepository.findByEmail(email)
+        return userContext.getCurrentAccount()
+                .filter(account -> account.getEmail().equals(email))
+                .or(() -> accountRepository.findByEmail(email))
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + email));
     }
 }
\ No newline at end of file
@@ -1,14 +1,13 @@
 package com.valedosol.kaju.feature.target.controller;
 
+import com.valedosol.kaju.config.CurrentAccount;
+import com.valedosol.kaju.config.UserContext;
 import com.valedosol.kaju.feature.auth.model.Account;
-import com.valedosol.kaju.feature.auth.repository.AccountRepository;
 import com.valedosol.kaju.feature.target.model.Target;
 import com.valedosol.kaju.feature.target.repository.TargetRepository;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -18,19 +17,16 @@ import java.util.List;
 public class TargetController {
 
     private final TargetRepository targetRepository;
-    private final AccountRepository accountRepository;
+    private final UserContext userContext;
 
-    public TargetController(TargetRepository targetRepository, AccountRepository accountRepository) {
+    public TargetController(TargetRepository targetRepository, UserContext userContext) {
         this.targetRepository = targetRepository;
-        this.accountRepository = accountRepository;
+        this.userContext = userContext;
     }
 
     // Get all targets (global and user-specific)
     @GetMapping
-    public ResponseEntity<List<Target>> getAllTargets() {
-        String email = getCurrentUserEmail();
-        Account currentUser = accountRepository.findByEmail(email).orElse(null);
-
+    public ResponseEntity<List<Target>> getAllTargets(@CurrentAccount(required = false) Account currentUser) {
         if (currentUser == null) {
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
         }
@@ -55,10 +51,8 @@ public class TargetController {
     }
 
     @GetMapping("/type/{type}")
-    public ResponseEntity<List<Target>> getTargetsByType(@PathVariable String type) {
-        String email = getCurrentUserEmail();
-        Account currentUser = accountRepository.findByEmail(email).orElse(null);
-
+    public ResponseEntity<List<Target>> getTargetsByType(@PathVariable String type,
+                                                         @CurrentAccount(required = false) Account currentUser) {
         if (currentUser == null) {
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
         }
@@ -76,10 +70,8 @@ public class TargetController {
 
     // Add a new target associated with the current user
     @PostMapping
-    public ResponseEntity<?> createTarget(@RequestBody Target targetRequest) {
-        String email = getCurrentUserEmail();
-        Account currentUser = accountRepository.findByEmail(email).orElse(null);
-
+    public ResponseEntity<?> createTarget(@RequestBody Target targetRequest,
+                                          @CurrentAccount(required = false) Account currentUser) {
         if (currentUser == null) {
             return new ResponseEntity<>("Usuário não autenticado", HttpStatus.UNAUTHORIZED);
         }
@@ -108,17 +100,11 @@ public class TargetController {
     }
 
     // Helper methods
-    private String getCurrentUserEmail() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return authentication.getName();
-    }
-
     private boolean isTargetOwnedByCurrentUser(Target target) {
         if (target.getOwner() == null)
             return false;
 
-        String email = getCurrentUserEmail();
-        Account currentUser = accountRepository.findByEmail(email).orElse(null);
+        Account currentUser = userContext.getCurrentAccount().orElse(null);
 
         return currentUser != null && target.getOwner().getId() == currentUser.getId();
     }
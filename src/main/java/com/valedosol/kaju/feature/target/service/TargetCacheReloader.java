@@ -0,0 +1,64 @@
+package com.valedosol.kaju.feature.target.service;
+
+import com.valedosol.kaju.config.cache.CacheReloader;
+import com.valedosol.kaju.feature.target.model.Target;
+import com.valedosol.kaju.feature.target.repository.TargetRepository;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reloads the "targets" cache filled by {@link TargetService}
+ */
+@Component
+public class TargetCacheReloader implements CacheReloader {
+
+    private static final String ALL_TARGETS_KEY = "allTargets";
+    private static final String TYPE_KEY_PREFIX = "type_";
+
+    private final TargetRepository targetRepository;
+
+    public TargetCacheReloader(TargetRepository targetRepository) {
+        this.targetRepository = targetRepository;
+    }
+
+    @Override
+    public String getCacheName() {
+        return "targets";
+    }
+
+    @Override
+    public Object load(Object key) {
+        if (ALL_TARGETS_KEY.equals(key)) {
+            return targetRepository.findAll();
+        }
+        if (key instanceof String name && name.startsWith(TYPE_KEY_PREFIX)) {
+            return targetRepository.findByType(name.substring(TYPE_KEY_PREFIX.length()));
+        }
+        if (key instanceof Long id) {
+            return targetRepository.findById(id).orElse(null);
+        }
+        return null;
+    }
+
+    /**
+     * Builds the list, per-type and per-id entries from a single query. The spec's
+     * maximumSize still bounds how many of them the cache keeps.
+     */
+    @Override
+    public Map<?, ?> loadWarmUpEntries() {
+        List<Target> targets = targetRepository.findAll();
+        Map<Object, Object> entries = new HashMap<>();
+        entries.put(ALL_TARGETS_KEY, targets);
+        targets.stream()
+                .filter(target -> target.getType() != null)
+                .collect(Collectors.groupingBy(Target::getType))
+                .forEach((type, ofType) -> entries.put(TYPE_KEY_PREFIX + type, ofType));
+        targets.forEach(target -> entries.put(target.getId(), target));
+        return entries;
+    }
+}
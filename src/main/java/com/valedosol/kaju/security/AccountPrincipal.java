@@ -0,0 +1,26 @@
+package com.valedosol.kaju.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Authenticated user together with its account id, so request handling can reach the
+ * account without looking it up by email first. Principals rebuilt from a session
+ * token carry no password.
+ */
+public class AccountPrincipal extends User {
+
+    private final Long accountId;
+
+    public AccountPrincipal(Long accountId, String email, String password,
+                            Collection<? extends GrantedAuthority> authorities) {
+        super(email, password, authorities);
+        this.accountId = accountId;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+}
@@ -0,0 +1,64 @@
+package com.valedosol.kaju.security;
+
+import com.valedosol.kaju.common.exception.TooManyRequestsException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link DaoAuthenticationProvider} for a {@link BoundedPasswordEncoder}.
+ * <p>
+ * A saturated hashing pool rejects a login with {@link TooManyRequestsException}, also
+ * when the provider wraps it in an {@link InternalAuthenticationServiceException}. The
+ * rehash of an outdated hash after a successful login is best-effort: when the pool is
+ * saturated the login still succeeds and the hash is upgraded on a later login.
+ */
+public class BoundedAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedAuthenticationProvider.class);
+
+    private final UserDetailsPasswordService userDetailsPasswordService;
+
+    public BoundedAuthenticationProvider(UserDetailsService userDetailsService,
+                                         UserDetailsPasswordService userDetailsPasswordService,
+                                         PasswordEncoder passwordEncoder) {
+        super(passwordEncoder);
+        setUserDetailsService(userDetailsService);
+        // Not handed to the superclass, which would fail the login when the rehash is rejected
+        this.userDetailsPasswordService = userDetailsPasswordService;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        try {
+            return super.authenticate(authentication);
+        } catch (InternalAuthenticationServiceException e) {
+            if (e.getCause() instanceof TooManyRequestsException tooManyRequests) {
+                throw tooManyRequests;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        if (getPasswordEncoder().upgradeEncoding(user.getPassword())) {
+            try {
+                String newPassword = getPasswordEncoder().encode(authentication.getCredentials().toString());
+                user = userDetailsPasswordService.updatePassword(user, newPassword);
+            } catch (TooManyRequestsException e) {
+                logger.debug("Hash de {} não atualizado: pool de hashing ocupado", user.getUsername());
+            }
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
@@ -8,6 +8,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,12 +16,11 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.valedosol.kaju.feature.auth.dto.ParsedToken;
 import com.valedosol.kaju.feature.auth.service.CustomUserDetailsService;
 import com.valedosol.kaju.feature.auth.service.JwtService;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
 
 import io.jsonwebtoken.JwtException;
 
@@ -30,31 +30,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final CustomUserDetailsService customUserDetailsService;
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
-    
-    private static final List<String> PUBLIC_PATHS = Arrays.asList(
-            "/auth/",
-            "/api/v2/stripe/",
-            "/swagger-ui",
-            "/api-docs",
-            "/v3/api-docs"
-    );
 
     public JwtAuthenticationFilter(JwtService jwtService, CustomUserDetailsService customUserDetailsService) {
         this.jwtService = jwtService;
         this.customUserDetailsService = customUserDetailsService;
     }
 
+    /**
+     * Public paths skip the filter entirely: no cookie parsing and no token validation
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return PublicRoutes.matches(path);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        String path = request.getRequestURI();
-        
-        // Skip authentication for public paths
-        if (isPublicPath(path)) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
         try {
             authenticateRequest(request);
         } catch (JwtException e) {
@@ -66,10 +59,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
-    private boolean isPublicPath(String path) {
-        return PUBLIC_PATHS.stream().anyMatch(path::startsWith);
-    }
-    
     private void authenticateRequest(HttpServletRequest request) {
         String jwt = jwtService.getJwtFromCookie(request);
             
@@ -79,9 +68,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         // Validate the token and set authentication
-        jwtService.validateToken(jwt);
-        String userEmail = jwtService.extractEmail();
-        UserDetails userDetails = customUserDetailsService.loadUserByUsername(userEmail);
+        ParsedToken token = jwtService.validateToken(jwt);
+        UserDetails userDetails;
+        if (token.isSelfContained()) {
+            // Id e papéis vêm do próprio token: nenhuma consulta ao banco por requisição
+            userDetails = new AccountPrincipal(token.accountId(), token.email(), "",
+                    token.roles().stream().map(SimpleGrantedAuthority::new).toList());
+        } else {
+            // Tokens emitidos antes dos claims de id e papéis ainda carregam a conta do banco
+            userDetails = customUserDetailsService.loadUserByUsername(token.email());
+        }
 
         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                 userDetails, null, userDetails.getAuthorities());
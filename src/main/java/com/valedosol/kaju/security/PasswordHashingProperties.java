@@ -0,0 +1,21 @@
+package com.valedosol.kaju.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "security.password")
+@Data
+public class PasswordHashingProperties {
+    // Algorithm new hashes are written with: "bcrypt" or "pbkdf2"; older hashes are upgraded on login
+    private String algorithm = "bcrypt";
+    // BCrypt cost factor (log2 rounds)
+    private int bcryptStrength = 10;
+    // PBKDF2-HMAC-SHA256 iterations
+    private int pbkdf2Iterations = 310000;
+    // Threads that hash and verify passwords; keeps a login burst from taking every CPU
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    // Hashes waiting for a thread before new ones are rejected with 429
+    private int queueCapacity = 32;
+}
@@ -0,0 +1,88 @@
+package com.valedosol.kaju.security;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes that need no authentication, shared by {@link SecurityConfig} and
+ * {@link JwtAuthenticationFilter} so the two can never disagree.
+ * <p>
+ * Patterns are either exact paths or a path followed by {@code /**}, which also
+ * matches the path itself. They are compiled once into a trie of path segments, so
+ * a lookup costs one map access per segment of the request path.
+ */
+public final class PublicRoutes {
+
+    private static final List<String> PATTERNS = List.of(
+            // Authentication endpoints
+            "/auth/**",
+            // Stripe webhook endpoint
+            "/api/v2/stripe/**",
+            // Swagger UI and OpenAPI endpoints
+            "/swagger-ui.html",
+            "/swagger-ui/**",
+            "/api-docs/**",
+            "/v3/api-docs/**"
+    );
+
+    private static final Node ROOT = compile(PATTERNS);
+
+    private PublicRoutes() {
+    }
+
+    /**
+     * The patterns in Ant syntax, for {@code requestMatchers(...)}
+     */
+    public static String[] patterns() {
+        return PATTERNS.toArray(String[]::new);
+    }
+
+    /**
+     * Whether the path, relative to the context path, is public
+     */
+    public static boolean matches(String path) {
+        Node node = ROOT;
+        int start = path.startsWith("/") ? 1 : 0;
+        while (start <= path.length()) {
+            if (node.wildcard) {
+                return true;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            node = node.children.get(path.substring(start, end));
+            if (node == null) {
+                return false;
+            }
+            start = end + 1;
+        }
+        return node.wildcard || node.exact;
+    }
+
+    private static Node compile(List<String> patterns) {
+        Node root = new Node();
+        for (String pattern : patterns) {
+            boolean wildcard = pattern.endsWith("/**");
+            String path = wildcard ? pattern.substring(0, pattern.length() - 3) : pattern;
+
+            Node node = root;
+            for (String segment : path.substring(1).split("/")) {
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+            }
+            if (wildcard) {
+                node.wildcard = true;
+            } else {
+                node.exact = true;
+            }
+        }
+        return root;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private boolean exact;
+        private boolean wildcard;
+    }
+}
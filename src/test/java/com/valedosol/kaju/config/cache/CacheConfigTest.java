@@ -0,0 +1,104 @@
+package com.valedosol.kaju.config.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheConfigTest {
+
+    private final CountingReloader reloader = new CountingReloader();
+
+    @Test
+    void missesAreLeftToTheCachedMethodAndCountedOnce() {
+        Cache cache = cacheWithSpec("maximumSize=10,refreshAfterWrite=1h,recordStats");
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(1L, () -> "target 1")).isEqualTo("target 1");
+        assertThat(cache.get(1L).get()).isEqualTo("target 1");
+
+        CacheStats stats = statsOf(cache);
+        assertThat(stats.missCount()).isEqualTo(2);
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.loadFailureCount()).isZero();
+        assertThat(stats.loadSuccessCount()).isEqualTo(1);
+        assertThat(reloader.loads).hasValue(0);
+    }
+
+    @Test
+    void readingAStaleEntryReloadsItThroughTheReloader() throws InterruptedException {
+        Cache cache = cacheWithSpec("maximumSize=10,refreshAfterWrite=1s,recordStats");
+        cache.put(1L, "old");
+        Thread.sleep(1100);
+
+        // The first read may still serve the old value while the reload runs
+        assertThat(cache.get(1L)).isNotNull();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!"reloaded 1".equals(cache.get(1L).get())) {
+            assertThat(System.nanoTime()).as("entry not reloaded in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+        assertThat(reloader.loads).hasValue(1);
+    }
+
+    @Test
+    void warmUpFillsEveryEntryTheReloaderBuilds() {
+        CacheManager cacheManager = cacheManager("maximumSize=10,recordStats");
+        new CacheWarmer(cacheManager, List.of(reloader)).warmUp();
+
+        Cache cache = cacheManager.getCache("targets");
+        assertThat(cache.get("allTargets").get()).isEqualTo(List.of("target 1", "target 2"));
+        assertThat(cache.get("type_group").get()).isEqualTo(List.of("target 2"));
+        assertThat(cache.get(1L).get()).isEqualTo("target 1");
+        assertThat(cache.get(2L).get()).isEqualTo("target 2");
+        assertThat(statsOf(cache).missCount()).isZero();
+    }
+
+    private Cache cacheWithSpec(String spec) {
+        return cacheManager(spec).getCache("targets");
+    }
+
+    private CacheManager cacheManager(String spec) {
+        CacheProperties properties = new CacheProperties();
+        properties.setSpecs(Map.of("targets", spec));
+        CacheManager cacheManager = new CacheConfig().cacheManager(properties, List.of(reloader),
+                new InProcessInvalidationTransport());
+        ((SimpleCacheManager) cacheManager).afterPropertiesSet();
+        return cacheManager;
+    }
+
+    private static CacheStats statsOf(Cache cache) {
+        return ((InvalidatingCache) cache).getNativeCache().stats();
+    }
+
+    private static class CountingReloader implements CacheReloader {
+
+        private final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public String getCacheName() {
+            return "targets";
+        }
+
+        @Override
+        public Object load(Object key) {
+            loads.incrementAndGet();
+            return "reloaded " + key;
+        }
+
+        @Override
+        public Map<?, ?> loadWarmUpEntries() {
+            return Map.of("allTargets", List.of("target 1", "target 2"), "type_group", List.of("target 2"),
+                    1L, "target 1", 2L, "target 2");
+        }
+    }
+}
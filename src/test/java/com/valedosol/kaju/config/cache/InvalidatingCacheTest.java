@@ -0,0 +1,124 @@
+package com.valedosol.kaju.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two nodes, each with its own cache and jdbc transport, sharing one database
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InvalidatingCacheTest {
+
+    @Autowired
+    private CacheInvalidationRepository repository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcInvalidationTransport transportA;
+    private JdbcInvalidationTransport transportB;
+    private InvalidatingCache nodeA;
+    private InvalidatingCache nodeB;
+
+    @BeforeEach
+    void setUp() {
+        CacheInvalidationProperties properties = new CacheInvalidationProperties();
+        transportA = new JdbcInvalidationTransport(repository, properties, transactionManager);
+        transportB = new JdbcInvalidationTransport(repository, properties, transactionManager);
+        assertThat(transportA.getNodeId()).isNotEqualTo(transportB.getNodeId());
+
+        nodeA = node(transportA);
+        nodeB = node(transportB);
+        for (InvalidatingCache node : new InvalidatingCache[] {nodeA, nodeB}) {
+            node.put(1L, "account 1");
+            node.put("a@kaju.com", "account 1");
+            node.put(2L, "account 2");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void evictionsAndClearsReachTheOtherNode() {
+        nodeA.evict(1L);
+        assertThat(nodeA.get(1L)).isNull();
+
+        transportB.poll();
+        assertThat(nodeB.get(1L)).isNull();
+        assertThat(nodeB.get(2L).get()).isEqualTo("account 2");
+        assertThat(nodeB.get("a@kaju.com").get()).isEqualTo("account 1");
+
+        nodeA.evictIfPresent("a@kaju.com");
+        transportB.poll();
+        assertThat(nodeB.get("a@kaju.com")).isNull();
+
+        nodeA.clear();
+        transportB.poll();
+        assertThat(nodeB.get(2L)).isNull();
+
+        // Nothing comes back to the node that published it
+        nodeA.put(2L, "account 2");
+        transportA.poll();
+        assertThat(nodeA.get(2L).get()).isEqualTo("account 2");
+    }
+
+    @Test
+    void putsStayOnTheLocalNode() {
+        nodeA.put(1L, "account 1 renamed");
+        nodeA.putIfAbsent(3L, "account 3");
+
+        transportB.poll();
+        assertThat(nodeB.get(1L).get()).isEqualTo("account 1");
+        assertThat(nodeB.get(3L)).isNull();
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    void evictionInsideATransactionIsBroadcastAfterCommit() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            nodeA.evict(1L);
+            assertThat(nodeA.get(1L)).isNull();
+
+            // Before the commit the other node must keep its copy; it could only reload the old row
+            transportB.poll();
+            assertThat(nodeB.get(1L).get()).isEqualTo("account 1");
+        });
+
+        transportB.poll();
+        assertThat(nodeB.get(1L)).isNull();
+    }
+
+    @Test
+    void rolledBackEvictionIsNotBroadcast() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            nodeA.evict(1L);
+            status.setRollbackOnly();
+        });
+
+        transportB.poll();
+        assertThat(nodeB.get(1L).get()).isEqualTo("account 1");
+        assertThat(repository.count()).isZero();
+    }
+
+    private static InvalidatingCache node(CacheInvalidationTransport transport) {
+        InvalidatingCache cache = new InvalidatingCache(
+                new CaffeineCache("accounts", Caffeine.newBuilder().build()), transport);
+        transport.subscribe(cache::apply);
+        return cache;
+    }
+}
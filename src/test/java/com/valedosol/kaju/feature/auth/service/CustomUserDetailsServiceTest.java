@@ -0,0 +1,83 @@
+package com.valedosol.kaju.feature.auth.service;
+
+import com.valedosol.kaju.feature.auth.model.Account;
+import com.valedosol.kaju.feature.auth.repository.AccountRepository;
+import com.valedosol.kaju.security.BoundedPasswordEncoder;
+import com.valedosol.kaju.security.PasswordHashingProperties;
+import com.valedosol.kaju.security.SecurityConfig;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomUserDetailsServiceTest {
+
+    private BoundedPasswordEncoder passwordEncoder;
+    private AuthenticationManager authenticationManager;
+
+    @BeforeEach
+    void setUp() {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setBcryptStrength(4);
+        passwordEncoder = SecurityConfig.passwordEncoder(properties);
+
+        AccountRepository accountRepository = mock(AccountRepository.class);
+        when(accountRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        Account account = new Account("a", "a@a.com", passwordEncoder.encode("pw"));
+        account.setId(1L);
+        when(accountRepository.findByEmail("a@a.com")).thenReturn(Optional.of(account));
+
+        CustomUserDetailsService userDetailsService =
+                new CustomUserDetailsService(accountRepository, new ConcurrentMapCacheManager("principals"));
+        authenticationManager = new SecurityConfig()
+                .authenticationManager(userDetailsService, userDetailsService, passwordEncoder);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.shutdown();
+    }
+
+    @Test
+    void unknownEmailAndWrongPasswordFailTheSameWay() {
+        Throwable unknownEmail = catchLoginFailure("nobody@a.com", "pw");
+        Throwable wrongPassword = catchLoginFailure("a@a.com", "wrong");
+
+        assertThat(unknownEmail).isInstanceOf(BadCredentialsException.class);
+        assertThat(wrongPassword).isInstanceOf(BadCredentialsException.class);
+        assertThat(unknownEmail.getMessage()).isEqualTo(wrongPassword.getMessage());
+    }
+
+    @Test
+    void unknownEmailFailsTheSameWayWhenTheAccountWasCachedBefore() {
+        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken("a@a.com", "pw"));
+
+        assertThatThrownBy(() -> login("nobody@a.com", "pw")).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> login("a@a.com", "wrong")).isInstanceOf(BadCredentialsException.class);
+    }
+
+    private void login(String email, String password) {
+        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(email, password));
+    }
+
+    private Throwable catchLoginFailure(String email, String password) {
+        try {
+            login(email, password);
+        } catch (RuntimeException e) {
+            return e;
+        }
+        throw new AssertionError("Login of " + email + " should have failed");
+    }
+}
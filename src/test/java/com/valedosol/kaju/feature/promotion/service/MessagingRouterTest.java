@@ -0,0 +1,128 @@
+package com.valedosol.kaju.feature.promotion.service;
+
+import com.valedosol.kaju.feature.promotion.config.DispatchProperties;
+import com.valedosol.kaju.feature.promotion.config.MessagingProperties;
+import com.valedosol.kaju.feature.promotion.dto.PreparedPromotion;
+import com.valedosol.kaju.feature.promotion.model.Promotion;
+import com.valedosol.kaju.feature.promotion.model.PromotionTarget;
+import com.valedosol.kaju.feature.promotion.model.SendOutcome;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessagingRouterTest {
+
+    private final List<String> throttledKeys = new CopyOnWriteArrayList<>();
+    private final PromotionDispatcher dispatcher = new PromotionDispatcher(new DispatchProperties()) {
+        @Override
+        public <R> R throttle(String instanceKey, Supplier<R> call) {
+            throttledKeys.add(instanceKey);
+            return super.throttle(instanceKey, call);
+        }
+    };
+    private final FakeProvider primary = new FakeProvider("evolution");
+    private final FakeProvider secondary = new FakeProvider("whapi");
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void unreachableProviderFailsOverUnderTheOtherProvidersLimits() {
+        primary.outcome = SendOutcome.UNREACHABLE;
+
+        assertThat(send(router(true))).isEqualTo(SendOutcome.SENT);
+        assertThat(secondary.sends).isEqualTo(1);
+        assertThat(throttledKeys).containsExactly("evolution:instance", "whapi:instance");
+    }
+
+    @Test
+    void openCircuitFailsOverWithoutTryingTheProvider() {
+        primary.deferral = Duration.ofSeconds(30);
+
+        assertThat(send(router(true))).isEqualTo(SendOutcome.SENT);
+        assertThat(primary.sends).isZero();
+        assertThat(throttledKeys).containsExactly("whapi:instance");
+    }
+
+    @Test
+    void failureThatMayHaveBeenDeliveredIsNotFailedOver() {
+        primary.outcome = SendOutcome.RETRIABLE;
+
+        assertThat(send(router(true))).isEqualTo(SendOutcome.RETRIABLE);
+        assertThat(secondary.sends).isZero();
+    }
+
+    @Test
+    void withoutFailoverOnlyThePrimaryIsTried() {
+        primary.outcome = SendOutcome.UNREACHABLE;
+        assertThat(send(router(false))).isEqualTo(SendOutcome.RETRIABLE);
+
+        primary.deferral = Duration.ofSeconds(30);
+        assertThat(send(router(false))).isEqualTo(SendOutcome.DEFERRED);
+        assertThat(secondary.sends).isZero();
+    }
+
+    private MessagingRouter router(boolean failover) {
+        MessagingProperties properties = new MessagingProperties();
+        properties.setFailoverEnabled(failover);
+        return new MessagingRouter(properties, dispatcher, List.of(primary, secondary));
+    }
+
+    private static SendOutcome send(MessagingRouter router) {
+        return router.send(router.prepare(new Promotion()), new PromotionTarget());
+    }
+
+    private static class FakeProvider implements MessagingProvider {
+
+        private final String name;
+        private SendOutcome outcome = SendOutcome.SENT;
+        private Duration deferral = Duration.ZERO;
+        private int sends;
+
+        FakeProvider(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getInstance() {
+            return "instance";
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public PreparedPromotion preparePromotion(Promotion promotion) {
+            return new PreparedPromotion("/send", Map.of(), new HttpHeaders());
+        }
+
+        @Override
+        public SendOutcome sendPrepared(PreparedPromotion prepared, PromotionTarget promotionTarget) {
+            sends++;
+            return outcome;
+        }
+
+        @Override
+        public Duration getDeferral() {
+            return deferral;
+        }
+    }
+}
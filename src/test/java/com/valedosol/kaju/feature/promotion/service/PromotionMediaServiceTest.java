@@ -0,0 +1,82 @@
+package com.valedosol.kaju.feature.promotion.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.valedosol.kaju.config.http.HttpClientProperties;
+import com.valedosol.kaju.feature.promotion.config.MediaProperties;
+import com.valedosol.kaju.feature.promotion.dto.PromotionMedia;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromotionMediaServiceTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0};
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final MediaProperties properties = new MediaProperties();
+    private HttpServer server;
+    private PromotionMediaService mediaService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            exchange.sendResponseHeaders(200, PNG.length);
+            exchange.getResponseBody().write(PNG);
+            exchange.close();
+        });
+        server.start();
+        mediaService = new PromotionMediaService(properties, new HttpClientProperties(),
+                new ConcurrentMapCacheManager(PromotionMediaService.CACHE_NAME));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mediaService.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void internalHostsAreNeverFetched() {
+        int port = server.getAddress().getPort();
+        for (String url : List.of("http://127.0.0.1:" + port + "/a.png", "http://localhost:" + port + "/a.png",
+                "http://[::1]:" + port + "/a.png")) {
+            PromotionMedia media = mediaService.resolve(url);
+            assertThat(media.inline()).isFalse();
+            assertThat(media.media()).isEqualTo(url);
+        }
+        assertThat(requests).hasValue(0);
+    }
+
+    @Test
+    void onlyHttpUrlsOnAllowedHostsAreFetched() {
+        assertThat(mediaService.resolve("file:///etc/passwd").inline()).isFalse();
+        assertThat(mediaService.resolve("ftp://example.com/a.png").inline()).isFalse();
+
+        properties.setAllowedHosts(List.of("cdn.kaju.com"));
+        assertThat(mediaService.resolve("http://example.com/a.png").inline()).isFalse();
+        assertThat(requests).hasValue(0);
+    }
+
+    @Test
+    void privateAndMetadataAddressesAreNotPublic() throws IOException {
+        for (String address : List.of("127.0.0.1", "10.0.0.1", "172.16.5.4", "192.168.1.1", "169.254.169.254",
+                "100.64.0.1", "0.0.0.0", "::1", "fe80::1", "fd00:ec2::254", "224.0.0.1")) {
+            assertThat(PromotionMediaService.isPublicAddress(InetAddress.getByName(address))).as(address).isFalse();
+        }
+        for (String address : List.of("8.8.8.8", "151.101.1.1", "2606:4700::1111")) {
+            assertThat(PromotionMediaService.isPublicAddress(InetAddress.getByName(address))).as(address).isTrue();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.valedosol.kaju.feature.promotion.service;
+
+import com.valedosol.kaju.feature.auth.model.Account;
+import com.valedosol.kaju.feature.auth.repository.AccountRepository;
+import com.valedosol.kaju.feature.promotion.config.DispatchProperties;
+import com.valedosol.kaju.feature.promotion.config.MessagingProperties;
+import com.valedosol.kaju.feature.promotion.config.OutboxProperties;
+import com.valedosol.kaju.feature.promotion.dto.PreparedPromotion;
+import com.valedosol.kaju.feature.promotion.model.Promotion;
+import com.valedosol.kaju.feature.promotion.model.PromotionTarget;
+import com.valedosol.kaju.feature.promotion.model.SendOutcome;
+import com.valedosol.kaju.feature.promotion.repository.PromotionRepository;
+import com.valedosol.kaju.feature.promotion.repository.PromotionTargetRepository;
+import com.valedosol.kaju.feature.promotion.repository.SendOutboxRepository;
+import com.valedosol.kaju.feature.subscription.model.SubscriptionPlan;
+import com.valedosol.kaju.feature.subscription.repository.SubscriptionPlanRepository;
+import com.valedosol.kaju.feature.target.model.Target;
+import com.valedosol.kaju.feature.target.repository.TargetRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PromotionOutboxServiceTest {
+
+    private static final String DELIVERED = "delivered@g.us";
+    private static final String REJECTED = "rejected@g.us";
+
+    @Autowired
+    private PromotionRepository promotionRepository;
+    @Autowired
+    private PromotionTargetRepository promotionTargetRepository;
+    @Autowired
+    private SendOutboxRepository outboxRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private SubscriptionPlanRepository subscriptionPlanRepository;
+    @Autowired
+    private TargetRepository targetRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private DataSource dataSource;
+
+    private final FakeProvider provider = new FakeProvider();
+    private PromotionDispatcher dispatcher;
+    private PromotionOutboxService outboxService;
+    private PromotionService promotionService;
+
+    @BeforeEach
+    void setUp() {
+        MessagingProperties messagingProperties = new MessagingProperties();
+        messagingProperties.setProviders(List.of(provider.getName()));
+        dispatcher = new PromotionDispatcher(new DispatchProperties());
+        MessagingRouter router = new MessagingRouter(messagingProperties, dispatcher, List.of(provider));
+
+        SendQuotaService quotaService = new SendQuotaService(accountRepository, entityManager,
+                new ConcurrentMapCacheManager("accounts"));
+        outboxService = new PromotionOutboxService(outboxRepository, promotionRepository, promotionTargetRepository,
+                quotaService, router, dispatcher, new OutboxProperties(), transactionManager, event -> { });
+        promotionService = new PromotionService(promotionRepository, quotaService, outboxService,
+                transactionManager, event -> { });
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxService.shutdown();
+        dispatcher.shutdown();
+        outboxRepository.deleteAll();
+        promotionRepository.deleteAll();
+        targetRepository.deleteAll();
+        accountRepository.deleteAll();
+        subscriptionPlanRepository.deleteAll();
+    }
+
+    @Test
+    void recurringPromotionRollsOverWhenATargetFailsPermanently() {
+        SubscriptionPlan plan = subscriptionPlanRepository.save(new SubscriptionPlan("Ouro", 10, 50.0));
+        Account creator = new Account("creator", "creator@kaju.com", "pw");
+        creator.setSubscriptionPlan(plan);
+        creator.setRemainingWeeklySends(10);
+        creator.setLastResetDate(LocalDateTime.now());
+        creator = accountRepository.save(creator);
+
+        LocalDateTime firstDue = LocalDateTime.now().minusMinutes(1).truncatedTo(ChronoUnit.SECONDS);
+        Promotion promotion = new Promotion("Oferta", "Descrição", null, creator, firstDue, true, 1, null);
+        promotion.addTarget(targetRepository.save(new Target("Entregue", DELIVERED, "group", null)));
+        promotion.addTarget(targetRepository.save(new Target("Rejeitado", REJECTED, "group", null)));
+        Long promotionId = promotionRepository.save(promotion).getId();
+
+        promotionService.enqueueIfDue(promotionId);
+        awaitUntil(() -> occurrencesOf(promotionId) == 1);
+
+        // A falha definitiva de um destino não impede a próxima ocorrência
+        Promotion rolledOver = promotionRepository.findById(promotionId).orElseThrow();
+        assertThat(rolledOver.isRecurring()).isTrue();
+        assertThat(rolledOver.getNextRecurrence()).isEqualTo(firstDue.plusWeeks(1));
+        assertThat(promotionTargetRepository.findByPromotionIdAndSent(promotionId, true)).isEmpty();
+        assertThat(promotionRepository.findRecurringDueBefore(firstDue.plusWeeks(1).plusMinutes(1)))
+                .anyMatch(due -> due.getId().equals(promotionId));
+        // Só a cota do envio rejeitado volta ao criador
+        assertThat(accountRepository.findRemainingWeeklySends(creator.getId())).contains(9);
+
+        // Chega a hora da ocorrência seguinte: os dois destinos são enviados de novo
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> promotionRepository
+                .findById(promotionId).orElseThrow().setNextRecurrence(LocalDateTime.now().minusMinutes(1)));
+        promotionService.enqueueIfDue(promotionId);
+        awaitUntil(() -> occurrencesOf(promotionId) == 2);
+
+        assertThat(provider.attempts).containsEntry(DELIVERED, 2).containsEntry(REJECTED, 2);
+        assertThat(accountRepository.findRemainingWeeklySends(creator.getId())).contains(8);
+    }
+
+    @Test
+    void dispatchStatementCountDoesNotGrowWithTheTargets() {
+        // Enqueue: promotion, creator, count, quota renewal check, reservation, refresh of the creator
+        // and the INSERT ... SELECT (7).
+        // Drain: claim, mark in flight, load the batch, reload it to complete, mark sent twice, final empty claim (7)
+        assertThat(statementsToDispatch(1)).isEqualTo(14);
+        assertThat(statementsToDispatch(30)).isEqualTo(14);
+    }
+
+    /**
+     * Statements run by the enqueue and the drain of a scheduled promotion with the given number of targets
+     */
+    private long statementsToDispatch(int targets) {
+        Account creator = new Account("creator", "creator" + targets + "@kaju.com", "pw");
+        creator.setRemainingWeeklySends(targets);
+        creator.setLastResetDate(LocalDateTime.now());
+        creator = accountRepository.save(creator);
+
+        Promotion promotion = new Promotion("Oferta", "Descrição", null, creator, LocalDateTime.now().minusMinutes(1));
+        for (int i = 0; i < targets; i++) {
+            promotion.addTarget(targetRepository.save(new Target("Grupo " + i, i + "@g.us", "group", null)));
+        }
+        Long promotionId = promotionRepository.save(promotion).getId();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        promotionService.enqueueIfDue(promotionId);
+
+        // Espera pelo JDBC direto, que não entra na contagem do Hibernate
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        awaitUntil(() -> jdbc.queryForObject("SELECT COUNT(*) FROM send_outbox WHERE promotion_id = ? AND status = 'SENT'",
+                Integer.class, promotionId) == targets);
+        // O drenador ainda faz uma última busca vazia antes de parar
+        long[] last = {-1};
+        awaitUntil(() -> {
+            long count = statistics.getPrepareStatementCount();
+            boolean stable = count == last[0];
+            last[0] = count;
+            sleep(100);
+            return stable;
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private int occurrencesOf(Long promotionId) {
+        return promotionRepository.findById(promotionId).orElseThrow().getTotalOccurrences();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            sleep(20);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Delivers to one target and permanently rejects the other
+     */
+    private static class FakeProvider implements MessagingProvider {
+
+        private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+
+        @Override
+        public String getName() {
+            return "fake";
+        }
+
+        @Override
+        public String getInstance() {
+            return "test";
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public PreparedPromotion preparePromotion(Promotion promotion) {
+            return new PreparedPromotion("/send", Map.of(), new HttpHeaders());
+        }
+
+        @Override
+        public SendOutcome sendPrepared(PreparedPromotion prepared, PromotionTarget promotionTarget) {
+            String identifier = promotionTarget.getTarget().getIdentifier();
+            attempts.merge(identifier, 1, Integer::sum);
+            return REJECTED.equals(identifier) ? SendOutcome.REJECTED : SendOutcome.SENT;
+        }
+
+        @Override
+        public Duration getDeferral() {
+            return Duration.ZERO;
+        }
+    }
+}
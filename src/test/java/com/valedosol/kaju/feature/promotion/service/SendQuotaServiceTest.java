@@ -0,0 +1,104 @@
+package com.valedosol.kaju.feature.promotion.service;
+
+import com.valedosol.kaju.feature.auth.model.Account;
+import com.valedosol.kaju.feature.auth.repository.AccountRepository;
+import com.valedosol.kaju.feature.subscription.model.SubscriptionPlan;
+import com.valedosol.kaju.feature.subscription.repository.SubscriptionPlanRepository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SendQuotaServiceTest {
+
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private SubscriptionPlanRepository subscriptionPlanRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("accounts");
+    private SendQuotaService quotaService;
+    private TransactionTemplate transactionTemplate;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        quotaService = new SendQuotaService(accountRepository, entityManager, cacheManager);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        SubscriptionPlan plan = subscriptionPlanRepository.save(new SubscriptionPlan("Ouro", 10, 50.0));
+        Account created = new Account("quota", "quota@kaju.com", "pw");
+        created.setSubscriptionPlan(plan);
+        created.setRemainingWeeklySends(10);
+        created.setLastResetDate(LocalDateTime.now());
+        account = accountRepository.save(created);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountRepository.deleteAll();
+        subscriptionPlanRepository.deleteAll();
+    }
+
+    @Test
+    void accountLoadedInTheTransactionSeesTheReservation() {
+        Cache cache = cacheManager.getCache("accounts");
+        cache.put(account.getId(), account);
+        cache.put(account.getEmail(), account);
+
+        int remaining = transactionTemplate.execute(status -> {
+            Account loaded = accountRepository.findById(account.getId()).orElseThrow();
+            quotaService.reserveUpTo(loaded.getId(), 3);
+            return loaded.getRemainingWeeklySends();
+        });
+
+        assertThat(remaining).isEqualTo(7);
+        assertThat(cache.get(account.getId())).isNull();
+        assertThat(cache.get(account.getEmail())).isNull();
+    }
+
+    @Test
+    void savingAStaleAccountKeepsTheReservation() {
+        Account stale = accountRepository.findById(account.getId()).orElseThrow();
+        transactionTemplate.executeWithoutResult(status -> quotaService.reserveUpTo(account.getId(), 4));
+
+        // Um salvamento com a cópia antiga não pode devolver os envios reservados
+        stale.setNickname("renamed");
+        stale.setRemainingWeeklySends(10);
+        accountRepository.save(stale);
+
+        Account saved = accountRepository.findById(account.getId()).orElseThrow();
+        assertThat(saved.getNickname()).isEqualTo("renamed");
+        assertThat(saved.getRemainingWeeklySends()).isEqualTo(6);
+    }
+
+    @Test
+    void startingAWindowRefillsThePlanAllowance() {
+        transactionTemplate.executeWithoutResult(status -> quotaService.reserveUpTo(account.getId(), 8));
+
+        Account detached = accountRepository.findById(account.getId()).orElseThrow();
+        transactionTemplate.executeWithoutResult(status -> quotaService.startWindow(detached));
+
+        assertThat(detached.getRemainingWeeklySends()).isEqualTo(10);
+        assertThat(accountRepository.findRemainingWeeklySends(account.getId())).contains(10);
+    }
+}
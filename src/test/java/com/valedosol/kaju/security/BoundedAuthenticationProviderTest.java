@@ -0,0 +1,86 @@
+package com.valedosol.kaju.security;
+
+import com.valedosol.kaju.common.exception.TooManyRequestsException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BoundedAuthenticationProviderTest {
+
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final UserDetailsPasswordService passwordService = mock(UserDetailsPasswordService.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+
+    private BoundedAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        // The hash of the timing-attack dummy password; computed once, before the pool saturates
+        when(passwordEncoder.encode("userNotFoundPassword")).thenReturn("{bcrypt}dummy");
+        provider = new BoundedAuthenticationProvider(userDetailsService, passwordService, passwordEncoder);
+    }
+
+    @Test
+    void loginSucceedsWhenTheHashUpgradeIsRejected() {
+        when(userDetailsService.loadUserByUsername("a@a.com"))
+                .thenReturn(new AccountPrincipal(1L, "a@a.com", "$2a$04$legacy", List.of()));
+        when(passwordEncoder.matches("pw", "$2a$04$legacy")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("$2a$04$legacy")).thenReturn(true);
+        when(passwordEncoder.encode("pw")).thenThrow(new TooManyRequestsException("busy"));
+
+        Authentication result = provider.authenticate(new UsernamePasswordAuthenticationToken("a@a.com", "pw"));
+
+        assertThat(result.isAuthenticated()).isTrue();
+        verify(passwordService, never()).updatePassword(any(), anyString());
+    }
+
+    @Test
+    void outdatedHashIsUpgradedWhenThePoolHasRoom() {
+        when(userDetailsService.loadUserByUsername("a@a.com"))
+                .thenReturn(new AccountPrincipal(1L, "a@a.com", "$2a$04$legacy", List.of()));
+        when(passwordEncoder.matches("pw", "$2a$04$legacy")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("$2a$04$legacy")).thenReturn(true);
+        when(passwordEncoder.encode("pw")).thenReturn("{bcrypt}new");
+        when(passwordService.updatePassword(any(), anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("a@a.com", "pw"));
+
+        verify(passwordService).updatePassword(any(), anyString());
+    }
+
+    @Test
+    void rejectionWrappedByTheProviderStillSurfacesAsTooManyRequests() {
+        when(userDetailsService.loadUserByUsername("a@a.com"))
+                .thenThrow(new TooManyRequestsException("busy"));
+
+        assertThatThrownBy(() -> provider.authenticate(new UsernamePasswordAuthenticationToken("a@a.com", "pw")))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void rejectedVerificationSurfacesAsTooManyRequests() {
+        when(userDetailsService.loadUserByUsername("a@a.com"))
+                .thenReturn(new AccountPrincipal(1L, "a@a.com", "{bcrypt}hash", List.of()));
+        when(passwordEncoder.matches("pw", "{bcrypt}hash")).thenThrow(new TooManyRequestsException("busy"));
+
+        assertThatThrownBy(() -> provider.authenticate(new UsernamePasswordAuthenticationToken("a@a.com", "pw")))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+}
@@ -0,0 +1,133 @@
+package com.valedosol.kaju.security;
+
+import com.valedosol.kaju.common.exception.TooManyRequestsException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Times password checks while far more logins arrive than the hashing pool can take
+ */
+class BoundedPasswordEncoderTest {
+
+    private static final int POOL_THREADS = 2;
+    private static final int QUEUE_CAPACITY = 4;
+    private static final int CALLERS = 32;
+    private static final int CHECKS_PER_CALLER = 5;
+
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(8);
+    private final ConcurrencyTrackingEncoder tracked = new ConcurrencyTrackingEncoder(bcrypt);
+    private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(tracked, POOL_THREADS, QUEUE_CAPACITY);
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void saturatedPoolBoundsHashingAndRejectsTheExcessRightAway() throws Exception {
+        String hash = bcrypt.encode("pw");
+        long singleHashNanos = timeSingleCheck(hash);
+
+        ConcurrentLinkedQueue<Long> acceptedNanos = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Long> rejectedNanos = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(callers.submit(() -> {
+                    start.await();
+                    for (int check = 0; check < CHECKS_PER_CALLER; check++) {
+                        long begin = System.nanoTime();
+                        try {
+                            assertThat(encoder.matches("pw", hash)).isTrue();
+                            acceptedNanos.add(System.nanoTime() - begin);
+                        } catch (TooManyRequestsException e) {
+                            rejectedNanos.add(System.nanoTime() - begin);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        // The pool never hashes more than its own threads, however many logins arrive
+        assertThat(tracked.maxConcurrent.get()).isLessThanOrEqualTo(POOL_THREADS);
+        assertThat(acceptedNanos).isNotEmpty();
+        assertThat(rejectedNanos).isNotEmpty();
+
+        // An accepted check waits at most for the hashes queued and running ahead of it, which the pool
+        // works through as fast as its threads and the machine's cores allow; the margin absorbs a busy machine
+        int parallelism = Math.min(POOL_THREADS, Runtime.getRuntime().availableProcessors());
+        long worstAcceptedBound = (QUEUE_CAPACITY + POOL_THREADS) * singleHashNanos / parallelism * 4;
+        assertThat(percentile(acceptedNanos, 0.99)).isLessThan(worstAcceptedBound);
+        // A rejected one does not wait for a hash at all
+        assertThat(percentile(rejectedNanos, 0.9)).isLessThan(singleHashNanos);
+    }
+
+    private long timeSingleCheck(String hash) {
+        // Warms the JIT first, then keeps the fastest of a few runs
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long begin = System.nanoTime();
+            bcrypt.matches("pw", hash);
+            best = Math.min(best, System.nanoTime() - begin);
+        }
+        return best;
+    }
+
+    private static long percentile(ConcurrentLinkedQueue<Long> samples, double percentile) {
+        List<Long> sorted = samples.stream().sorted().toList();
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(percentile * sorted.size()) - 1));
+    }
+
+    /**
+     * Records the highest number of hashes running at the same time
+     */
+    private static class ConcurrencyTrackingEncoder implements PasswordEncoder {
+
+        private final PasswordEncoder delegate;
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        ConcurrencyTrackingEncoder(PasswordEncoder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            maxConcurrent.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                return delegate.matches(rawPassword, encodedPassword);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.valedosol.kaju.security;
+
+import com.valedosol.kaju.feature.auth.config.JwtProperties;
+import com.valedosol.kaju.feature.auth.service.CustomUserDetailsService;
+import com.valedosol.kaju.feature.auth.service.JwtService;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.crypto.SecretKey;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hammers the filter from many threads with tokens of different accounts and checks that
+ * every request is authenticated as the account of its own token.
+ */
+class JwtAuthenticationFilterConcurrencyTest {
+
+    private static final int ACCOUNTS = 50;
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_THREAD = 2_000;
+
+    @Test
+    void identitiesNeverCrossBetweenConcurrentRequests() throws Exception {
+        SecretKey key = Jwts.SIG.HS256.key().build();
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(Encoders.BASE64.encode(key.getEncoded()));
+        properties.setExpires(60L);
+        JwtService jwtService = new JwtService(properties);
+
+        // Tokens issued before the id and roles claims still go through the user details service
+        CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(anyString())).thenAnswer(invocation -> {
+            String email = invocation.getArgument(0);
+            return principal(accountIdOf(email), email);
+        });
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userDetailsService);
+
+        List<String> tokens = new ArrayList<>();
+        for (long accountId = 1; accountId <= ACCOUNTS; accountId++) {
+            String email = "user" + accountId + "@kaju.com";
+            tokens.add(accountId % 2 == 0
+                    ? jwtService.generateToken(principal(accountId, email), new MockHttpServletResponse())
+                    : legacyToken(email, key));
+        }
+
+        ConcurrentLinkedQueue<String> mismatches = new ConcurrentLinkedQueue<>();
+        AtomicInteger authenticated = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t;
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        int index = (offset + i) % ACCOUNTS;
+                        long expectedId = index + 1;
+                        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/promotions");
+                        request.setCookies(new Cookie("JWT", tokens.get(index)));
+
+                        FilterChain chain = (req, res) -> {
+                            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+                            if (authentication == null) {
+                                mismatches.add("request for account " + expectedId + " was not authenticated");
+                                return;
+                            }
+                            AccountPrincipal principal = (AccountPrincipal) authentication.getPrincipal();
+                            if (principal.getAccountId() != expectedId
+                                    || !principal.getUsername().equals("user" + expectedId + "@kaju.com")) {
+                                mismatches.add("request for account " + expectedId + " authenticated as "
+                                        + principal.getAccountId() + " / " + principal.getUsername());
+                            } else {
+                                authenticated.incrementAndGet();
+                            }
+                        };
+                        try {
+                            filter.doFilter(request, new MockHttpServletResponse(), chain);
+                        } finally {
+                            SecurityContextHolder.clearContext();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(mismatches).isEmpty();
+        assertThat(authenticated.get()).isEqualTo(THREADS * REQUESTS_PER_THREAD);
+    }
+
+    private static AccountPrincipal principal(long accountId, String email) {
+        return new AccountPrincipal(accountId, email, "", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    private static long accountIdOf(String email) {
+        return Long.parseLong(email.substring("user".length(), email.indexOf('@')));
+    }
+
+    // A token as issued before key ids, token ids and the id and roles claims existed
+    private static String legacyToken(String email, SecretKey key) {
+        return Jwts.builder()
+                .subject(email)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60 * 60 * 1000))
+                .signWith(key)
+                .compact();
+    }
+}